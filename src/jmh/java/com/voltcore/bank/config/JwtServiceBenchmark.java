@@ -0,0 +1,59 @@
+package com.voltcore.bank.config;
+
+import com.voltcore.bank.entities.User;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing and verification as done by the login endpoint and the JWT filter. The uncached
+ * case verifies the signature and parses the claims on every call, as a token seen for the first
+ * time; the cached case is a client repeating its token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtServiceBenchmark {
+    private JwtService cachingJwtService;
+    private JwtService uncachedJwtService;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtKeyring keyring = new JwtKeyring("");
+        cachingJwtService = new JwtService(keyring, 10_000);
+        uncachedJwtService = new JwtService(keyring, 0);
+
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("benchmark");
+        user.setRole("USER");
+        authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        token = cachingJwtService.generateToken(authentication);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachingJwtService.generateToken(authentication);
+    }
+
+    @Benchmark
+    public Claims verifyUncached() {
+        return uncachedJwtService.getClaimsFromToken(token);
+    }
+
+    @Benchmark
+    public Claims verifyCached() {
+        return cachingJwtService.getClaimsFromToken(token);
+    }
+}
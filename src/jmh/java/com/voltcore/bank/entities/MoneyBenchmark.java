@@ -0,0 +1,72 @@
+package com.voltcore.bank.entities;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance arithmetic in {@link Money} against the same operations in {@link BigDecimal}: a
+ * deposit (add, then check the result is not negative), a withdrawal checked against the balance,
+ * and interest rounded half up to cents. Run with {@code -prof gc} to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+    private BigDecimal decimalBalance;
+    private BigDecimal decimalAmount;
+    private Money balance;
+    private Money amount;
+    private BigDecimal ratePercent;
+
+    @Setup
+    public void setUp() {
+        decimalBalance = new BigDecimal("15234.56");
+        decimalAmount = new BigDecimal("12.34");
+        balance = Money.of(decimalBalance);
+        amount = Money.of(decimalAmount);
+        ratePercent = new BigDecimal("2.75");
+    }
+
+    @Benchmark
+    public BigDecimal depositBigDecimal() {
+        BigDecimal result = decimalBalance.add(decimalAmount);
+        return result.signum() < 0 ? decimalBalance : result;
+    }
+
+    @Benchmark
+    public Money depositMoney() {
+        Money result = balance.plus(amount);
+        return result.signum() < 0 ? balance : result;
+    }
+
+    @Benchmark
+    public BigDecimal withdrawBigDecimal() {
+        return decimalBalance.compareTo(decimalAmount) < 0 ? decimalBalance : decimalBalance.subtract(decimalAmount);
+    }
+
+    @Benchmark
+    public Money withdrawMoney() {
+        return balance.compareTo(amount) < 0 ? balance : balance.minus(amount);
+    }
+
+    @Benchmark
+    public BigDecimal interestBigDecimal() {
+        return decimalBalance.multiply(ratePercent).divide(ONE_HUNDRED, Money.SCALE, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public Money interestMoney() {
+        return balance.percent(ratePercent, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,57 @@
+package com.voltcore.bank.mappers;
+
+import com.voltcore.bank.dtos.TransactionDTO;
+import com.voltcore.bank.entities.Account;
+import com.voltcore.bank.entities.DescriptionCode;
+import com.voltcore.bank.entities.Money;
+import com.voltcore.bank.entities.PaymentMethod;
+import com.voltcore.bank.entities.Transaction;
+import com.voltcore.bank.entities.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping of a transaction, done for every transaction the API returns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransactionMapperBenchmark {
+    private TransactionMapper transactionMapper;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        transactionMapper = new TransactionMapperImpl();
+
+        Account account = new Account();
+        account.setId(1L);
+        account.setAccountNumber(UUID.randomUUID().toString());
+        Account counterparty = new Account();
+        counterparty.setId(2L);
+        counterparty.setAccountNumber(UUID.randomUUID().toString());
+        transaction = new Transaction();
+        transaction.setId(42L);
+        transaction.setAccount(account);
+        transaction.setCounterpartyAccount(counterparty);
+        transaction.setTransactionType(TransactionType.TRANSFER);
+        transaction.setAmount(Money.ofMinorUnits(1234));
+        transaction.setTransactionDate(LocalDateTime.now());
+        transaction.setDescriptionCode(DescriptionCode.TRANSFER);
+        transaction.setPaymentMethod(PaymentMethod.BANK_TRANSFER);
+    }
+
+    @Benchmark
+    public TransactionDTO toDTO() {
+        return transactionMapper.toDTO(transaction);
+    }
+}
@@ -0,0 +1,133 @@
+package com.voltcore.bank.repositories;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserting {@code rows} transaction rows into PostgreSQL the way Hibernate does for each id
+ * strategy: with IDENTITY ids every insert is its own round trip returning the id, while with a
+ * pooled sequence (allocation size 50, as on the entities) one {@code nextval} covers 50 rows that
+ * are sent as a single JDBC batch. Each iteration inserts into fresh temporary tables, committing
+ * every {@value #COMMIT_INTERVAL} rows. Needs a running database, by default the one in
+ * application.properties; override with {@code -p url=... -p user=... -p password=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransactionInsertBenchmark {
+    private static final int ALLOCATION_SIZE = 50;
+    private static final int COMMIT_INTERVAL = 10_000;
+    private static final String COLUMNS = "account_id bigint NOT NULL, transaction_type smallint NOT NULL, "
+            + "amount numeric(19, 2) NOT NULL, transaction_date timestamp NOT NULL, description_code smallint";
+
+    @Param("jdbc:postgresql://localhost:5432/bankdb?reWriteBatchedInserts=true")
+    public String url;
+
+    @Param("postgres")
+    public String user;
+
+    @Param("postgres")
+    public String password;
+
+    @Param("1000000")
+    public int rows;
+
+    private Connection connection;
+    private Timestamp now;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(url, user, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TEMPORARY TABLE identity_transaction "
+                    + "(id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " + COLUMNS + ")");
+            statement.execute("CREATE TEMPORARY TABLE pooled_transaction (id bigint PRIMARY KEY, " + COLUMNS + ")");
+            statement.execute("CREATE TEMPORARY SEQUENCE pooled_transaction_seq START WITH 50 INCREMENT BY " + ALLOCATION_SIZE);
+        }
+        connection.setAutoCommit(false);
+        now = Timestamp.valueOf(LocalDateTime.now());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long identity() throws SQLException {
+        long lastId = 0;
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO identity_transaction "
+                + "(account_id, transaction_type, amount, transaction_date, description_code) VALUES (?, ?, ?, ?, ?) RETURNING id")) {
+            for (int row = 0; row < rows; row++) {
+                bind(insert, 1, row);
+                try (ResultSet generated = insert.executeQuery()) {
+                    generated.next();
+                    lastId = generated.getLong(1);
+                }
+                commitEvery(row);
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    @Benchmark
+    public long pooled() throws SQLException {
+        long hi = 0;
+        try (PreparedStatement nextval = connection.prepareStatement("SELECT nextval('pooled_transaction_seq')");
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO pooled_transaction "
+                     + "(id, account_id, transaction_type, amount, transaction_date, description_code) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int row = 0; row < rows; row++) {
+                if (row % ALLOCATION_SIZE == 0) {
+                    try (ResultSet value = nextval.executeQuery()) {
+                        value.next();
+                        hi = value.getLong(1);
+                    }
+                }
+                insert.setLong(1, hi - ALLOCATION_SIZE + 1 + row % ALLOCATION_SIZE);
+                bind(insert, 2, row);
+                insert.addBatch();
+                if (row % ALLOCATION_SIZE == ALLOCATION_SIZE - 1) {
+                    insert.executeBatch();
+                }
+                commitEvery(row);
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        return hi;
+    }
+
+    private void bind(PreparedStatement insert, int firstIndex, int row) throws SQLException {
+        insert.setLong(firstIndex, 1 + row % 1000);
+        insert.setShort(firstIndex + 1, (short) 1);
+        insert.setBigDecimal(firstIndex + 2, BigDecimal.valueOf(1234 + row % 100_000, 2));
+        insert.setTimestamp(firstIndex + 3, now);
+        insert.setShort(firstIndex + 4, (short) 1);
+    }
+
+    private void commitEvery(int row) throws SQLException {
+        if ((row + 1) % COMMIT_INTERVAL == 0) {
+            connection.commit();
+        }
+    }
+}
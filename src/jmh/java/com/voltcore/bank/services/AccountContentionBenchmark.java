@@ -0,0 +1,63 @@
+package com.voltcore.bank.services;
+
+import com.voltcore.bank.dtos.TransactionDTO;
+import com.voltcore.bank.entities.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of concurrent deposits and transfers against the number of hot accounts they are
+ * spread over. Every balance update holds its account for {@code rowLockHoldMicros}, standing in
+ * for a row lock held until commit, so with fewer hot accounts than threads the threads queue on
+ * the same accounts and throughput falls towards one commit per hot account at a time; with many
+ * it approaches the uncontended rate. Vary the thread count with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class AccountContentionBenchmark {
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    @Param({"1", "4", "16", "64", "1024"})
+    public int hotAccounts;
+
+    @Param({"0", "200"})
+    public long rowLockHoldMicros;
+
+    private InMemoryBank bank;
+    private AccountService accountService;
+
+    @Setup
+    public void setUp() {
+        bank = new InMemoryBank(hotAccounts, Money.of(new BigDecimal("1000000000000.00")),
+                Duration.of(rowLockHoldMicros, ChronoUnit.MICROS));
+        accountService = bank.accountService();
+    }
+
+    @Benchmark
+    public TransactionDTO deposit() {
+        return accountService.deposit(bank.accountNumber(ThreadLocalRandom.current().nextInt(hotAccounts)), AMOUNT, "PAYPAL");
+    }
+
+    @Benchmark
+    public TransactionDTO transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(hotAccounts);
+        int to = hotAccounts == 1 ? from : (from + 1 + random.nextInt(hotAccounts - 1)) % hotAccounts;
+        return accountService.transfer(bank.accountNumber(from), bank.accountNumber(to), AMOUNT, "BANK_TRANSFER");
+    }
+}
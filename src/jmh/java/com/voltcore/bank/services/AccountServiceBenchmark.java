@@ -0,0 +1,73 @@
+package com.voltcore.bank.services;
+
+import com.voltcore.bank.dtos.TransactionDTO;
+import com.voltcore.bank.entities.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The money-movement paths of {@link AccountService} against an {@link InMemoryBank}: validation,
+ * balance arithmetic, transaction construction and mapping, without the database. Run with
+ * {@code -prof gc} to see allocations per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AccountServiceBenchmark {
+    private static final BigDecimal AMOUNT = new BigDecimal("12.34");
+    private static final Money BALANCE = Money.of(new BigDecimal("15234.56"));
+    private static final BigDecimal RATE = new BigDecimal("2.75");
+
+    private InMemoryBank bank;
+    private AccountService accountService;
+    private String fromAccountNumber;
+    private String toAccountNumber;
+    private TransactionDTO createDeposit;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        bank = new InMemoryBank(1024, Money.of(new BigDecimal("1000000000000.00")));
+        accountService = bank.accountService();
+        fromAccountNumber = bank.accountNumber(0);
+        toAccountNumber = bank.accountNumber(1);
+        createDeposit = new TransactionDTO();
+        createDeposit.setAccountNumber(fromAccountNumber);
+        createDeposit.setTransactionType("DEPOSIT");
+        createDeposit.setAmount(AMOUNT);
+        createDeposit.setPaymentMethod("PAYPAL");
+    }
+
+    @Benchmark
+    public TransactionDTO deposit() {
+        return accountService.deposit(bank.accountNumber(next++), AMOUNT, "PAYPAL");
+    }
+
+    @Benchmark
+    public TransactionDTO withdraw() {
+        return accountService.withdraw(bank.accountNumber(next++), AMOUNT, "BANK_TRANSFER");
+    }
+
+    @Benchmark
+    public TransactionDTO transfer() {
+        return accountService.transfer(fromAccountNumber, toAccountNumber, AMOUNT, "BANK_TRANSFER");
+    }
+
+    @Benchmark
+    public TransactionDTO createTransaction() {
+        return accountService.createTransaction(createDeposit);
+    }
+
+    @Benchmark
+    public Money calculateInterest() {
+        return AccountService.calculateInterest(BALANCE, RATE);
+    }
+}
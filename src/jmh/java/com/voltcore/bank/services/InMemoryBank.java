@@ -0,0 +1,153 @@
+package com.voltcore.bank.services;
+
+import com.voltcore.bank.entities.Account;
+import com.voltcore.bank.entities.AccountStatus;
+import com.voltcore.bank.entities.AccountType;
+import com.voltcore.bank.entities.Money;
+import com.voltcore.bank.entities.Transaction;
+import com.voltcore.bank.ledger.LedgerEngine;
+import com.voltcore.bank.mappers.AccountMapperImpl;
+import com.voltcore.bank.mappers.TransactionMapper;
+import com.voltcore.bank.mappers.TransactionMapperImpl;
+import com.voltcore.bank.repositories.AccountBalanceSlotRepository;
+import com.voltcore.bank.repositories.AccountRepository;
+import com.voltcore.bank.repositories.TransactionRepository;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+
+/**
+ * An {@link AccountService} wired to in-memory repository fakes and an email service that
+ * drops notifications, so benchmarks measure the service and mapping code rather than
+ * PostgreSQL or SMTP. The fakes implement only the repository methods the money-movement paths
+ * call; anything else throws. Transactions are numbered but not kept, so long runs do not grow
+ * the heap. The balance update of each account is serialized on the account, like the row lock
+ * the conditional UPDATE takes; {@code rowLockHold} keeps it held for that long, as the row lock is
+ * held while the transaction waits for its commit.
+ */
+final class InMemoryBank {
+    private final Map<String, Account> accountsByNumber = new HashMap<>();
+    private final Map<Long, Account> accountsById = new HashMap<>();
+    private final List<String> accountNumbers = new ArrayList<>();
+    private final AtomicLong transactionIds = new AtomicLong();
+    private final AccountService accountService;
+    private final long rowLockHoldNanos;
+
+    InMemoryBank(int accountCount, Money openingBalance) {
+        this(accountCount, openingBalance, Duration.ZERO);
+    }
+
+    InMemoryBank(int accountCount, Money openingBalance, Duration rowLockHold) {
+        this.rowLockHoldNanos = rowLockHold.toNanos();
+        AccountNumberGenerator accountNumberGenerator = new AccountNumberGenerator(0);
+        for (long id = 1; id <= accountCount; id++) {
+            Account account = new Account();
+            account.setId(id);
+            account.setAccountNumber(accountNumberGenerator.next());
+            account.setAccountHolderName("Benchmark holder " + id);
+            account.setAccountType(AccountType.SAVINGS);
+            account.setBalance(openingBalance);
+            account.setStatus(AccountStatus.ACTIVE);
+            accountsByNumber.put(account.getAccountNumber(), account);
+            accountsById.put(id, account);
+            accountNumbers.add(account.getAccountNumber());
+        }
+
+        TransactionRepository transactionRepository = fake(TransactionRepository.class, this::transactionRepository);
+        TransactionMapper transactionMapper = new TransactionMapperImpl();
+        this.accountService = new AccountService(
+                fake(AccountRepository.class, this::accountRepository),
+                fake(AccountBalanceSlotRepository.class, (method, args) -> unsupported(method)),
+                transactionRepository,
+                new AccountMapperImpl(),
+                transactionMapper,
+                new NoOpEmailService(),
+                accountNumberGenerator,
+                new TransactionRangeCache(transactionRepository, transactionMapper, Duration.ofHours(1), 1, Duration.ofHours(1)),
+                new StaticListableBeanFactory().getBeanProvider(LedgerEngine.class),
+                10_000, 64, 500);
+    }
+
+    AccountService accountService() {
+        return accountService;
+    }
+
+    String accountNumber(int index) {
+        return accountNumbers.get(index % accountNumbers.size());
+    }
+
+    private Object accountRepository(Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "creditActive" -> move((String) args[0], (Long) args[1]);
+            case "debitActive" -> move((String) args[0], -(Long) args[1]);
+            case "getReferenceById" -> accountsById.get((Long) args[0]);
+            case "findByAccountNumber" -> Optional.ofNullable(accountsByNumber.get((String) args[0]));
+            default -> unsupported(method);
+        };
+    }
+
+    private Object transactionRepository(Method method, Object[] args) {
+        if (method.getName().equals("save")) {
+            Transaction transaction = (Transaction) args[0];
+            transaction.setId(transactionIds.incrementAndGet());
+            return transaction;
+        }
+        return unsupported(method);
+    }
+
+    /**
+     * The conditional balance UPDATE of {@code creditActive}/{@code debitActive}.
+     */
+    private Optional<Long> move(String accountNumber, long deltaMinorUnits) {
+        Account account = accountsByNumber.get(accountNumber);
+        if (account == null || account.getStatus() != AccountStatus.ACTIVE) {
+            return Optional.empty();
+        }
+        synchronized (account) {
+            Money balance = Money.ofMinorUnits(Math.addExact(account.getBalance().minorUnits(), deltaMinorUnits));
+            if (balance.signum() < 0) {
+                return Optional.empty();
+            }
+            account.setBalance(balance);
+            if (rowLockHoldNanos > 0) {
+                LockSupport.parkNanos(rowLockHoldNanos);
+            }
+        }
+        return Optional.of(account.getId());
+    }
+
+    private static Object unsupported(Method method) {
+        throw new UnsupportedOperationException(method.getName() + " is not faked");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T fake(Class<T> repositoryType, BiFunction<Method, Object[], Object> handler) {
+        return (T) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "toString" -> "InMemory" + repositoryType.getSimpleName();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> handler.apply(method, args);
+                });
+    }
+
+    private static final class NoOpEmailService extends EmailService {
+        private NoOpEmailService() {
+            super(null, null, null, 1, Duration.ZERO, Duration.ZERO);
+        }
+
+        @Override
+        public void queueTransactionEmail(Transaction transaction) {
+        }
+    }
+}
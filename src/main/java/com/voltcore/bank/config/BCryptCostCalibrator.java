@@ -0,0 +1,50 @@
+package com.voltcore.bank.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the BCrypt work factor for this machine.
+ * <p>
+ * Every extra cost step doubles the hashing time, so one hash at the minimum cost is enough to
+ * predict the others. The calibrated cost is the highest one whose predicted time stays within
+ * the target latency, never below the minimum and never above the maximum.
+ */
+final class BCryptCostCalibrator {
+    private static final Logger log = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+    private BCryptCostCalibrator() {
+    }
+
+    static int calibrate(Duration targetLatency, int minCost, int maxCost) {
+        if (minCost < 4 || maxCost > 31 || minCost > maxCost) {
+            throw new IllegalArgumentException("BCrypt cost bounds must satisfy 4 <= min <= max <= 31");
+        }
+        BCryptPasswordEncoder warmUp = new BCryptPasswordEncoder(4);
+        for (int i = 0; i < 20; i++) {
+            warmUp.encode(SAMPLE_PASSWORD);
+        }
+
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minCost);
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        int cost = minCost;
+        long predictedNanos = bestNanos;
+        while (cost < maxCost && predictedNanos * 2 <= targetLatency.toNanos()) {
+            cost++;
+            predictedNanos *= 2;
+        }
+        log.info("BCrypt cost {} takes {} ms here; using cost {} (about {} ms) for a {} ms target",
+                minCost, bestNanos / 1_000_000, cost, predictedNanos / 1_000_000, targetLatency.toMillis());
+        return cost;
+    }
+}
@@ -0,0 +1,38 @@
+package com.voltcore.bank.config;
+
+import com.voltcore.bank.services.ConflictRetryExecutor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@link ConflictRetryExecutor} to methods annotated with
+ * {@link com.voltcore.bank.services.RetryOnConflict}. Ordered ahead of the transaction
+ * interceptor so every attempt runs in a fresh transaction.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ConflictRetryAspect {
+    private final ConflictRetryExecutor conflictRetryExecutor;
+
+    public ConflictRetryAspect(ConflictRetryExecutor conflictRetryExecutor) {
+        this.conflictRetryExecutor = conflictRetryExecutor;
+    }
+
+    @Around("@annotation(com.voltcore.bank.services.RetryOnConflict)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint) {
+        return conflictRetryExecutor.execute(joinPoint.getSignature().getName(), () -> {
+            try {
+                return joinPoint.proceed();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,135 @@
+package com.voltcore.bank.config;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The HMAC keys used to sign and verify JWTs, identified by key id ({@code kid}).
+ * <p>
+ * Keys are read from the properties file at {@code voltcore.jwt.keyring.location}, shared by every
+ * instance:
+ * <pre>
+ * 2026-10.secret=&lt;base64 of at least 64 random bytes&gt;
+ * 2026-10.not-before=2026-10-01T00:00:00Z
+ * 2026-10.not-after=2027-01-02T00:00:00Z
+ * </pre>
+ * New tokens are signed with the key whose window has most recently opened; a token is accepted
+ * while the key named in its header has not passed its {@code not-after}. To rotate, add the next
+ * key with a future {@code not-before} and give the current key a {@code not-after} at least one
+ * token lifetime later, so every node can verify both keys before either is used or retired. The
+ * file is re-read when it changes. Without a location a random key is generated, and tokens are
+ * only valid on this instance until it restarts.
+ */
+@Component
+public class JwtKeyring {
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyring.class);
+    private static final String EPHEMERAL_KEY_ID = "ephemeral";
+
+    private final Path location;
+    private volatile Map<String, KeyVersion> keys;
+    private volatile FileTime loadedModifiedTime;
+
+    public JwtKeyring(@Value("${voltcore.jwt.keyring.location:}") String location) {
+        if (location.isBlank()) {
+            log.warn("voltcore.jwt.keyring.location is not set; signing tokens with a random key that no other instance "
+                    + "accepts and that is lost on restart");
+            this.location = null;
+            this.keys = Map.of(EPHEMERAL_KEY_ID,
+                    new KeyVersion(EPHEMERAL_KEY_ID, Jwts.SIG.HS512.key().build(), Instant.MIN, Instant.MAX));
+        } else {
+            this.location = Path.of(location);
+            try {
+                load();
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalStateException("Cannot load JWT keyring from " + location, e);
+            }
+        }
+    }
+
+    /**
+     * The key new tokens are signed with.
+     */
+    public KeyVersion signingKey() {
+        Instant now = Instant.now();
+        return keys.values().stream()
+                .filter(key -> !now.isBefore(key.notBefore()) && now.isBefore(key.notAfter()))
+                .max(Comparator.comparing(KeyVersion::notBefore).thenComparing(KeyVersion::id))
+                .orElseThrow(() -> new IllegalStateException("No JWT signing key is currently valid"));
+    }
+
+    /**
+     * The key that verifies tokens signed under {@code keyId}, or null if it is unknown or retired.
+     */
+    public SecretKey verificationKey(String keyId) {
+        KeyVersion key = keyId == null ? null : keys.get(keyId);
+        return key != null && Instant.now().isBefore(key.notAfter()) ? key.key() : null;
+    }
+
+    /**
+     * Re-reads the keyring file if it changed. A file that cannot be read keeps the previous keys.
+     */
+    @Scheduled(fixedDelayString = "${voltcore.jwt.keyring.reload-interval-ms:60000}")
+    public void reloadIfChanged() {
+        if (location == null) {
+            return;
+        }
+        try {
+            if (!Files.getLastModifiedTime(location).equals(loadedModifiedTime)) {
+                load();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Cannot reload JWT keyring from {}; keeping the previous keys", location, e);
+        }
+    }
+
+    private synchronized void load() throws IOException {
+        FileTime modifiedTime = Files.getLastModifiedTime(location);
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(location)) {
+            properties.load(reader);
+        }
+        Map<String, KeyVersion> loaded = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (!name.endsWith(".secret")) {
+                continue;
+            }
+            String id = name.substring(0, name.length() - ".secret".length());
+            SecretKey key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(properties.getProperty(name).trim()));
+            String notBefore = properties.getProperty(id + ".not-before");
+            String notAfter = properties.getProperty(id + ".not-after");
+            loaded.put(id, new KeyVersion(id, key,
+                    notBefore == null ? Instant.MIN : Instant.parse(notBefore.trim()),
+                    notAfter == null ? Instant.MAX : Instant.parse(notAfter.trim())));
+        }
+        if (loaded.isEmpty()) {
+            throw new IllegalArgumentException("JWT keyring " + location + " contains no keys");
+        }
+        keys = Map.copyOf(loaded);
+        loadedModifiedTime = modifiedTime;
+        log.info("Loaded JWT keyring with key ids {}", loaded.keySet());
+    }
+
+    /**
+     * One key of the ring and the window in which it signs or verifies tokens.
+     */
+    public record KeyVersion(String id, SecretKey key, Instant notBefore, Instant notAfter) {
+    }
+}
@@ -1,50 +1,113 @@
 package com.voltcore.bank.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.voltcore.bank.entities.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
 
+/**
+ * Issues and verifies the API's JWTs.
+ * <p>
+ * Tokens are signed with the current key of the {@link JwtKeyring} and name it in their
+ * {@code kid} header, so any instance sharing the keyring can verify them. Verified tokens are
+ * cached by their SHA-256 digest until they expire, so a client repeating the same token skips
+ * signature verification and claim parsing. Only tokens that passed verification are cached, an
+ * entry never outlives the token's {@code exp}, and it is dropped once its key is retired.
+ */
 @Service
 public class JwtService {
 
-    private static final SecretKey SECRET_KEY = Keys.secretKeyFor(SignatureAlgorithm.HS512);
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String TOKEN_VERSION_CLAIM = "tv";
+
     private static final long EXPIRATION_TIME = 86400000L; // 1 day in ms
 
+    private final JwtKeyring keyring;
+    private final JwtParser parser;
+    private final Cache<String, Jws<Claims>> verifiedTokens; // null when the cache size is 0
+
+    public JwtService(JwtKeyring keyring,
+                      @Value("${voltcore.jwt.verified-token-cache.size:10000}") long verifiedTokenCacheSize) {
+        this.keyring = keyring;
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return keyring.verificationKey(header.getKeyId()); // null rejects the token
+                    }
+                })
+                .build();
+        this.verifiedTokens = verifiedTokenCacheSize <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheSize)
+                .expireAfter(Expiry.creating((String digest, Jws<Claims> jws) -> jws.getPayload().getExpiration() == null
+                        ? Duration.ZERO
+                        : Duration.between(Instant.now(), jws.getPayload().getExpiration().toInstant())))
+                .build();
+    }
+
+    /**
+     * Issues a token for an authenticated user. Besides the username it carries the user id, role
+     * and token version, so requests can be authorized from the token alone.
+     */
     public String generateToken(Authentication authentication) {
+        if (!(authentication.getPrincipal() instanceof User user)) {
+            throw new IllegalArgumentException("Tokens can only be issued for authenticated users");
+        }
+        JwtKeyring.KeyVersion signingKey = keyring.signingKey();
         return Jwts.builder()
-                .subject(authentication.getName())
+                .header().keyId(signingKey.id()).and()
+                .subject(user.getUsername())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLE_CLAIM, user.getRole())
+                .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion())
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(SECRET_KEY)
+                .signWith(signingKey.key())
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        JwtParser parser = Jwts.parser()
-                .verifyWith(SECRET_KEY)
-                .build();
-
-        return parser.parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+    /**
+     * Verifies the token and returns its claims; throws if it is invalid or expired.
+     */
+    public Claims getClaimsFromToken(String token) {
+        if (verifiedTokens == null) {
+            return parser.parseSignedClaims(token).getPayload();
+        }
+        String digest = digest(token);
+        Jws<Claims> jws = verifiedTokens.get(digest, key -> parser.parseSignedClaims(token));
+        if (keyring.verificationKey(jws.getHeader().getKeyId()) == null) {
+            verifiedTokens.invalidate(digest);
+            throw new UnsupportedJwtException("Token signing key " + jws.getHeader().getKeyId() + " has been retired");
+        }
+        return jws.getPayload();
     }
 
-    public boolean validateToken(String token) {
+    private static String digest(String token) {
         try {
-            JwtParser parser = Jwts.parser()
-                    .verifyWith(SECRET_KEY)
-                    .build();
-
-            parser.parseSignedClaims(token); // Throws if invalid
-            return true;
-        } catch (Exception e) {
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 }
@@ -0,0 +1,92 @@
+package com.voltcore.bank.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Token-bucket limiter for sign-in and registration attempts, with one bucket per username and
+ * one per client IP.
+ * <p>
+ * A username's bucket holds {@code voltcore.auth.rate-limit.username-capacity} attempts and a
+ * client's bucket the larger {@code client-capacity}, since many users can share an address.
+ * Both refill completely over {@code voltcore.auth.rate-limit.refill-period}. An attempt needs a
+ * token from both buckets and is rejected with 429 before any password is hashed. Buckets are
+ * local to this instance and idle ones are dropped.
+ */
+@Component
+public class LoginRateLimiter {
+    private final int usernameCapacity;
+    private final int clientCapacity;
+    private final long refillNanos;
+    private final Cache<String, TokenBucket> buckets;
+    private final Counter limited;
+
+    public LoginRateLimiter(@Value("${voltcore.auth.rate-limit.username-capacity:10}") int usernameCapacity,
+                            @Value("${voltcore.auth.rate-limit.client-capacity:100}") int clientCapacity,
+                            @Value("${voltcore.auth.rate-limit.refill-period:1m}") Duration refillPeriod,
+                            @Value("${voltcore.auth.rate-limit.max-buckets:100000}") long maxBuckets,
+                            MeterRegistry meterRegistry) {
+        this.usernameCapacity = Math.max(1, usernameCapacity);
+        this.clientCapacity = Math.max(1, clientCapacity);
+        this.refillNanos = Math.max(1, refillPeriod.toNanos());
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(refillPeriod)
+                .build();
+        this.limited = Counter.builder("voltcore.auth.rate-limited")
+                .description("Sign-in and registration attempts rejected by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one attempt from the client's bucket and then the username's, or throws 429 if either
+     * is empty. The username's bucket is only touched once the client's has allowed the attempt,
+     * so a client over its own limit cannot drain another user's attempts.
+     */
+    public void acquire(String username, String clientAddress) {
+        boolean allowed = bucket("ip:" + clientAddress, clientCapacity).tryTake()
+                && (username == null || bucket("user:" + username.toLowerCase(Locale.ROOT), usernameCapacity).tryTake());
+        if (!allowed) {
+            limited.increment();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many attempts, please retry later");
+        }
+    }
+
+    private TokenBucket bucket(String key, int capacity) {
+        return buckets.get(key, k -> new TokenBucket(capacity, (double) capacity / refillNanos));
+    }
+
+    private static final class TokenBucket {
+        private final int capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long refilledAt;
+
+        private TokenBucket(int capacity, double tokensPerNano) {
+            this.capacity = capacity;
+            this.tokensPerNano = tokensPerNano;
+            this.tokens = capacity;
+            this.refilledAt = System.nanoTime();
+        }
+
+        synchronized boolean tryTake() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.voltcore.bank.config;
 
 import com.voltcore.bank.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,6 +16,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -20,8 +24,10 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -30,10 +36,12 @@ public class SecurityConfig {
 
     private final JwtService jwtService;
     private final UserRepository userRepository;
+    private final TokenVersionCache tokenVersionCache;
 
-    public SecurityConfig(JwtService jwtService, UserRepository userRepository) {
+    public SecurityConfig(JwtService jwtService, UserRepository userRepository, TokenVersionCache tokenVersionCache) {
         this.jwtService = jwtService;
         this.userRepository = userRepository;
+        this.tokenVersionCache = tokenVersionCache;
     }
 
     @Bean
@@ -43,7 +51,11 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Streamed responses finish on an async dispatch of an already authorized request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/swagger-ui/**", "/api-docs/**", "/api/users/register", "/api/users/login").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/api/accounts/**", "/api/transactions/**", "/api/users/**").authenticated()
                         .anyRequest().permitAll()
                 )
@@ -54,7 +66,7 @@ public class SecurityConfig {
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtService, userRepository);
+        return new JwtAuthenticationFilter(jwtService, tokenVersionCache);
     }
 
     @Bean
@@ -63,9 +75,25 @@ public class SecurityConfig {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
 
+    /**
+     * BCrypt at a work factor calibrated to {@code voltcore.auth.password-hashing.target-latency}
+     * on this machine, unless a fixed {@code cost} is configured. Hashes are stored with an
+     * algorithm prefix; unprefixed legacy hashes and hashes of a lower cost still match and are
+     * re-encoded on the user's next successful login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${voltcore.auth.password-hashing.cost:0}") int cost,
+                                           @Value("${voltcore.auth.password-hashing.target-latency:250ms}") Duration targetLatency,
+                                           @Value("${voltcore.auth.password-hashing.min-cost:10}") int minCost,
+                                           @Value("${voltcore.auth.password-hashing.max-cost:16}") int maxCost,
+                                           @Value("${voltcore.auth.password-hashing.threads:0}") int threads,
+                                           @Value("${voltcore.auth.password-hashing.queue-capacity:64}") int queueCapacity) {
+        int strength = cost > 0 ? cost : BCryptCostCalibrator.calibrate(targetLatency, minCost, maxCost);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(strength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return new BoundedPasswordEncoder(encoder, threads, queueCapacity, meterRegistry);
     }
 
     @Bean
@@ -78,7 +106,7 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(List.of("http://localhost:3000"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Idempotency-Key"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
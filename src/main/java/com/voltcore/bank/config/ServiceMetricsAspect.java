@@ -0,0 +1,104 @@
+package com.voltcore.bank.config;
+
+import com.voltcore.bank.services.BankingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of {@code AccountService} and {@code AuthService} and counts its
+ * outcomes.
+ * <p>
+ * {@code voltcore.service.duration} is a timer with a percentile histogram per service method,
+ * covering retries and the transaction commit. {@code voltcore.service.results} counts calls per
+ * method, outcome and failure reason. Reasons come from the exception type, the
+ * {@link BankingException.Reason} or the HTTP status, never the message, so they stay a small
+ * fixed set: insufficient_funds, inactive_account, not_found, invalid_request, unsupported,
+ * overloaded, unavailable and error. Ordered outermost, ahead of the conflict retry aspect.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.voltcore.bank.services.AccountService.*(..))"
+            + " || execution(public * com.voltcore.bank.services.AuthService.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            counter(service, method, "success", "none").increment();
+            return result;
+        } catch (Throwable e) {
+            counter(service, method, "failure", failureReason(e)).increment();
+            throw e;
+        } finally {
+            timer(service, method).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String failureReason(Throwable e) {
+        if (e instanceof BankingException banking) {
+            return banking.getReason().name().toLowerCase(Locale.ROOT);
+        }
+        if (e instanceof IllegalArgumentException) {
+            return "invalid_request";
+        }
+        if (e instanceof UnsupportedOperationException) {
+            return "unsupported";
+        }
+        if (e instanceof ResponseStatusException responseStatus) {
+            HttpStatusCode status = responseStatus.getStatusCode();
+            if (status.isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)) {
+                return "overloaded";
+            }
+            if (status.isSameCodeAs(HttpStatus.SERVICE_UNAVAILABLE)) {
+                return "unavailable";
+            }
+        }
+        return "error";
+    }
+
+    private Timer timer(String service, String method) {
+        return timers.computeIfAbsent(service + '.' + method, key -> Timer.builder("voltcore.service.duration")
+                .description("Duration of service calls, including retries and commit")
+                .tag("service", service)
+                .tag("method", method)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private Counter counter(String service, String method, String outcome, String reason) {
+        return counters.computeIfAbsent(service + '.' + method + '.' + outcome + '.' + reason,
+                key -> Counter.builder("voltcore.service.results")
+                        .description("Service calls by outcome and failure reason")
+                        .tag("service", service)
+                        .tag("method", method)
+                        .tag("outcome", outcome)
+                        .tag("reason", reason)
+                        .register(meterRegistry));
+    }
+}
@@ -0,0 +1,58 @@
+package com.voltcore.bank.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.voltcore.bank.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Cache of the current token version of each user, used to revoke tokens without looking the
+ * user up on every request.
+ * <p>
+ * A token is accepted only while its {@code tv} claim equals the user's version; deleted users
+ * have no version at all. Changes made on this instance evict the user immediately; changes made
+ * on another instance are picked up once the entry expires after
+ * {@code voltcore.jwt.token-version-cache.ttl}.
+ */
+@Component
+public class TokenVersionCache {
+    private final LoadingCache<Long, Optional<Long>> versions;
+
+    public TokenVersionCache(UserRepository userRepository,
+                             @Value("${voltcore.jwt.token-version-cache.size:100000}") long size,
+                             @Value("${voltcore.jwt.token-version-cache.ttl:1m}") Duration ttl) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(size)
+                .expireAfterWrite(ttl)
+                .build(userRepository::findTokenVersionById);
+    }
+
+    /**
+     * Whether a token carrying {@code tokenVersion} is still valid for the user.
+     */
+    public boolean isCurrent(long userId, long tokenVersion) {
+        return versions.get(userId).map(version -> version == tokenVersion).orElse(false);
+    }
+
+    /**
+     * Forgets the cached version of the user, now and again once the surrounding transaction
+     * completes, so a concurrent request cannot cache the old version in between.
+     */
+    public void evict(Long userId) {
+        versions.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    versions.invalidate(userId);
+                }
+            });
+        }
+    }
+}
@@ -1,15 +1,26 @@
 package com.voltcore.bank.controllers;
 
 import com.voltcore.bank.dtos.AccountDTO;
+import com.voltcore.bank.dtos.BatchTransferResponseDTO;
+import com.voltcore.bank.dtos.InterestRunDTO;
 import com.voltcore.bank.dtos.TransactionDTO;
+import com.voltcore.bank.dtos.TransferRequestDTO;
+import com.voltcore.bank.services.AccountNumberGenerator;
 import com.voltcore.bank.services.AccountService;
+import com.voltcore.bank.services.ExportFormat;
+import com.voltcore.bank.services.ExportService;
+import com.voltcore.bank.services.IdempotencyService;
+import com.voltcore.bank.services.InterestService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -22,9 +33,16 @@ import java.util.List;
 @Tag(name = "Account Operations", description = "API for managing bank accounts")
 public class AccountController {
     private final AccountService accountService;
+    private final IdempotencyService idempotencyService;
+    private final InterestService interestService;
+    private final ExportService exportService;
 
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, IdempotencyService idempotencyService,
+                             InterestService interestService, ExportService exportService) {
         this.accountService = accountService;
+        this.idempotencyService = idempotencyService;
+        this.interestService = interestService;
+        this.exportService = exportService;
     }
 
     @GetMapping
@@ -38,6 +56,22 @@ public class AccountController {
         return ResponseEntity.ok(accountService.getAllAccounts());
     }
 
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export all accounts", description = "Streams every account as NDJSON (format=ndjson, default) or CSV (format=csv). Admin only.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "400", description = "Invalid export format"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    public ResponseEntity<StreamingResponseBody> exportAccounts(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=accounts." + exportFormat.getFileExtension())
+                .body(out -> exportService.exportAccounts(out, exportFormat));
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Create a new account", description = "Creates a new bank account with a unique account number. Admin only.")
@@ -58,6 +92,7 @@ public class AccountController {
             @ApiResponse(responseCode = "403", description = "Access denied")
     })
     public ResponseEntity<AccountDTO> updateAccount(@PathVariable String accountNumber, @RequestBody AccountDTO accountDTO) {
+        AccountNumberGenerator.requireWellFormed(accountNumber);
         return ResponseEntity.ok(accountService.updateAccount(accountNumber, accountDTO));
     }
 
@@ -70,51 +105,93 @@ public class AccountController {
             @ApiResponse(responseCode = "403", description = "Access denied")
     })
     public ResponseEntity<Void> deleteAccount(@PathVariable String accountNumber) {
+        AccountNumberGenerator.requireWellFormed(accountNumber);
         accountService.deleteAccount(accountNumber);
         return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/{accountNumber}/deposit")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    @Operation(summary = "Deposit money", description = "Deposits money into the specified account with a payment method (PAYPAL, CREDIT_CARD, BANK_TRANSFER). Accessible to Users and Admins.")
+    @Operation(summary = "Deposit money", description = "Deposits money into the specified account with a payment method (PAYPAL, CREDIT_CARD, BANK_TRANSFER). Repeating a request with the same Idempotency-Key returns the original result. Accessible to Users and Admins.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Deposit successful"),
             @ApiResponse(responseCode = "400", description = "Invalid amount, payment method, or account not found"),
-            @ApiResponse(responseCode = "403", description = "Access denied")
+            @ApiResponse(responseCode = "403", description = "Access denied"),
+            @ApiResponse(responseCode = "409", description = "Idempotency-Key reused for a different request, or its first request is still running")
     })
     public ResponseEntity<TransactionDTO> deposit(@PathVariable String accountNumber,
                                                   @RequestParam String paymentMethod,
-                                                  @RequestBody BigDecimal amount) {
-        return ResponseEntity.ok(accountService.deposit(accountNumber, amount, paymentMethod));
+                                                  @RequestBody BigDecimal amount,
+                                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        AccountNumberGenerator.requireWellFormed(accountNumber);
+        String request = "deposit|" + accountNumber + "|" + paymentMethod + "|" + IdempotencyService.canonical(amount);
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, request,
+                () -> accountService.deposit(accountNumber, amount, paymentMethod)));
     }
 
     @PostMapping("/{accountNumber}/withdraw")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    @Operation(summary = "Withdraw money", description = "Withdraws money from the specified account with a payment method (PAYPAL, CREDIT_CARD, BANK_TRANSFER). Accessible to Users and Admins.")
+    @Operation(summary = "Withdraw money", description = "Withdraws money from the specified account with a payment method (PAYPAL, CREDIT_CARD, BANK_TRANSFER). Repeating a request with the same Idempotency-Key returns the original result. Accessible to Users and Admins.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Withdrawal successful"),
             @ApiResponse(responseCode = "400", description = "Invalid amount, insufficient funds, payment method, or account not found"),
-            @ApiResponse(responseCode = "403", description = "Access denied")
+            @ApiResponse(responseCode = "403", description = "Access denied"),
+            @ApiResponse(responseCode = "409", description = "Idempotency-Key reused for a different request, or its first request is still running")
     })
     public ResponseEntity<TransactionDTO> withdraw(@PathVariable String accountNumber,
                                                    @RequestParam String paymentMethod,
-                                                   @RequestBody BigDecimal amount) {
-        return ResponseEntity.ok(accountService.withdraw(accountNumber, amount, paymentMethod));
+                                                   @RequestBody BigDecimal amount,
+                                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        AccountNumberGenerator.requireWellFormed(accountNumber);
+        String request = "withdraw|" + accountNumber + "|" + paymentMethod + "|" + IdempotencyService.canonical(amount);
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, request,
+                () -> accountService.withdraw(accountNumber, amount, paymentMethod)));
     }
 
     @PostMapping("/transfer")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    @Operation(summary = "Transfer money", description = "Transfers money between two accounts with a payment method (PAYPAL, CREDIT_CARD, BANK_TRANSFER). Accessible to Users and Admins.")
+    @Operation(summary = "Transfer money", description = "Transfers money between two accounts with a payment method (PAYPAL, CREDIT_CARD, BANK_TRANSFER). Repeating a request with the same Idempotency-Key returns the original result. Accessible to Users and Admins.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Transfer successful"),
             @ApiResponse(responseCode = "400", description = "Invalid amount, payment method, or accounts not found"),
-            @ApiResponse(responseCode = "403", description = "Access denied")
+            @ApiResponse(responseCode = "403", description = "Access denied"),
+            @ApiResponse(responseCode = "409", description = "Idempotency-Key reused for a different request, or its first request is still running")
     })
     public ResponseEntity<TransactionDTO> transfer(@RequestParam String fromAccountNumber,
                                                    @RequestParam String toAccountNumber,
                                                    @RequestParam String paymentMethod,
-                                                   @RequestBody BigDecimal amount) {
-        return ResponseEntity.ok(accountService.transfer(fromAccountNumber, toAccountNumber, amount, paymentMethod));
+                                                   @RequestBody BigDecimal amount,
+                                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        AccountNumberGenerator.requireWellFormed(fromAccountNumber);
+        AccountNumberGenerator.requireWellFormed(toAccountNumber);
+        String request = "transfer|" + fromAccountNumber + "|" + toAccountNumber + "|" + paymentMethod + "|" + IdempotencyService.canonical(amount);
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, request,
+                () -> accountService.transfer(fromAccountNumber, toAccountNumber, amount, paymentMethod)));
+    }
+
+    @PostMapping("/transfers/batch")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @Operation(summary = "Batch transfer money", description = "Executes many transfers in a single request and reports the outcome of each one. Invalid transfers are rejected individually without failing the batch. Accessible to Users and Admins.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch processed; see per-transfer results"),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    public ResponseEntity<BatchTransferResponseDTO> transferBatch(@RequestBody List<TransferRequestDTO> transfers) {
+        return ResponseEntity.ok(accountService.transferBatch(transfers));
+    }
+
+    @PutMapping("/{accountNumber}/balance-slots")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Configure balance slots", description = "Spreads credits to a hot account over the given number of sub-balances (1 to the configured maximum). The reported balance stays the exact total. Admin only.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Balance slots configured"),
+            @ApiResponse(responseCode = "400", description = "Account not found, not active, or invalid slot count"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    public ResponseEntity<AccountDTO> configureBalanceSlots(@PathVariable String accountNumber, @RequestParam int slots) {
+        AccountNumberGenerator.requireWellFormed(accountNumber);
+        return ResponseEntity.ok(accountService.configureBalanceSlots(accountNumber, slots));
     }
 
     @PostMapping("/{accountNumber}/close")
@@ -126,6 +203,7 @@ public class AccountController {
             @ApiResponse(responseCode = "403", description = "Access denied")
     })
     public ResponseEntity<AccountDTO> closeAccount(@PathVariable String accountNumber) {
+        AccountNumberGenerator.requireWellFormed(accountNumber);
         return ResponseEntity.ok(accountService.closeAccount(accountNumber));
     }
 
@@ -138,9 +216,34 @@ public class AccountController {
             @ApiResponse(responseCode = "403", description = "Access denied")
     })
     public ResponseEntity<TransactionDTO> applyInterest(@PathVariable String accountNumber) {
+        AccountNumberGenerator.requireWellFormed(accountNumber);
         return ResponseEntity.ok(accountService.applyInterest(accountNumber));
     }
 
+    @PostMapping("/interest-runs")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Start bulk interest run", description = "Applies interest to all active accounts with a positive interest rate for the current month in the background, resuming an unfinished run if there is one. Admin only.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Interest run started"),
+            @ApiResponse(responseCode = "400", description = "An interest run is already in progress, or this month's interest has already been credited"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    public ResponseEntity<InterestRunDTO> startInterestRun() {
+        return ResponseEntity.accepted().body(interestService.startRun());
+    }
+
+    @GetMapping("/interest-runs/{runId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get bulk interest run", description = "Retrieves the progress of a bulk interest run. Admin only.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Interest run retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Interest run not found"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    public ResponseEntity<InterestRunDTO> getInterestRun(@PathVariable Long runId) {
+        return ResponseEntity.ok(interestService.getRun(runId));
+    }
+
     @GetMapping("/{accountNumber}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
     @Operation(summary = "Get account details", description = "Retrieves details of the specified account. Accessible to Users and Admins.")
@@ -150,6 +253,7 @@ public class AccountController {
             @ApiResponse(responseCode = "403", description = "Access denied")
     })
     public ResponseEntity<AccountDTO> getAccount(@PathVariable String accountNumber) {
+        AccountNumberGenerator.requireWellFormed(accountNumber);
         return ResponseEntity.ok(accountService.getAccount(accountNumber));
     }
 
@@ -1,12 +1,14 @@
 package com.voltcore.bank.controllers;
 
 import com.voltcore.bank.config.JwtService;
+import com.voltcore.bank.config.LoginRateLimiter;
 import com.voltcore.bank.dtos.UserDTO;
 import com.voltcore.bank.services.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.http.ResponseEntity;
@@ -16,8 +18,6 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
-
 /**
  * REST Controller for handling authentication operations with Swagger documentation.
  */
@@ -28,20 +28,25 @@ public class AuthController {
     private final AuthService authService;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final LoginRateLimiter loginRateLimiter;
 
-    public AuthController(AuthService authService, AuthenticationManager authenticationManager, JwtService jwtService) {
+    public AuthController(AuthService authService, AuthenticationManager authenticationManager, JwtService jwtService,
+                          LoginRateLimiter loginRateLimiter) {
         this.authService = authService;
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
     @PostMapping("/register")
     @Operation(summary = "Register a new user", description = "Creates a new user account with role and email.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User registered successfully"),
-            @ApiResponse(responseCode = "400", description = "Username already exists")
+            @ApiResponse(responseCode = "400", description = "Username already exists"),
+            @ApiResponse(responseCode = "429", description = "Too many attempts or registrations in progress")
     })
-    public ResponseEntity<UserDTO> register(@RequestBody UserDTO userDTO) {
+    public ResponseEntity<UserDTO> register(@RequestBody UserDTO userDTO, HttpServletRequest request) {
+        loginRateLimiter.acquire(null, request.getRemoteAddr());
         return ResponseEntity.ok(authService.register(userDTO));
     }
 
@@ -49,9 +54,11 @@ public class AuthController {
     @Operation(summary = "User login", description = "Authenticates a user with username and password, returning a JWT and user details.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Login successful"),
-            @ApiResponse(responseCode = "401", description = "Invalid username or password")
+            @ApiResponse(responseCode = "401", description = "Invalid username or password"),
+            @ApiResponse(responseCode = "429", description = "Too many attempts or sign-ins in progress")
     })
-    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        loginRateLimiter.acquire(loginRequest.getUsername(), request.getRemoteAddr());
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
@@ -75,15 +82,13 @@ public class AuthController {
             @ApiResponse(responseCode = "200", description = "User details retrieved successfully"),
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
-    public ResponseEntity<UserDTO> getCurrentUser(Principal principal) {
-        if (principal == null) {
+    public ResponseEntity<UserDTO> getCurrentUser(Authentication authentication) {
+        if (authentication == null) {
             return ResponseEntity.status(401).body(null);
         }
         UserDTO userDTO = new UserDTO();
-        userDTO.setUsername(principal.getName());
-        userDTO.setRole(authenticationManager.authenticate(
-                        new UsernamePasswordAuthenticationToken(principal.getName(), null)
-                ).getAuthorities().stream()
+        userDTO.setUsername(authentication.getName());
+        userDTO.setRole(authentication.getAuthorities().stream()
                 .findFirst()
                 .map(auth -> auth.getAuthority().replace("ROLE_", ""))
                 .orElse("USER"));
@@ -1,14 +1,22 @@
 package com.voltcore.bank.controllers;
 
 import com.voltcore.bank.dtos.TransactionDTO;
+import com.voltcore.bank.dtos.TransactionPageDTO;
+import com.voltcore.bank.services.AccountNumberGenerator;
 import com.voltcore.bank.services.AccountService;
+import com.voltcore.bank.services.ExportFormat;
+import com.voltcore.bank.services.ExportService;
+import com.voltcore.bank.services.IdempotencyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -21,9 +29,14 @@ import java.util.List;
 @Tag(name = "Transaction Operations", description = "API for managing bank transactions")
 public class TransactionController {
     private final AccountService accountService;
+    private final IdempotencyService idempotencyService;
+    private final ExportService exportService;
 
-    public TransactionController(AccountService accountService) {
+    public TransactionController(AccountService accountService, IdempotencyService idempotencyService,
+                                 ExportService exportService) {
         this.accountService = accountService;
+        this.idempotencyService = idempotencyService;
+        this.exportService = exportService;
     }
 
     @GetMapping
@@ -37,16 +50,41 @@ public class TransactionController {
         return ResponseEntity.ok(accountService.getAllTransactions());
     }
 
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export all transactions", description = "Streams every transaction as NDJSON (format=ndjson, default) or CSV (format=csv). Admin only.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "400", description = "Invalid export format"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions." + exportFormat.getFileExtension())
+                .body(out -> exportService.exportTransactions(out, exportFormat));
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    @Operation(summary = "Create a transaction", description = "Creates a new transaction (deposit, withdrawal, or transfer). Accessible to Users and Admins.")
+    @Operation(summary = "Create a transaction", description = "Creates a new transaction (deposit, withdrawal, or transfer). Repeating a request with the same Idempotency-Key returns the original result. Accessible to Users and Admins.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Transaction created successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid transaction data"),
-            @ApiResponse(responseCode = "403", description = "Access denied")
+            @ApiResponse(responseCode = "403", description = "Access denied"),
+            @ApiResponse(responseCode = "409", description = "Idempotency-Key reused for a different request, or its first request is still running")
     })
-    public ResponseEntity<TransactionDTO> createTransaction(@RequestBody TransactionDTO transactionDTO) {
-        return ResponseEntity.ok(accountService.createTransaction(transactionDTO));
+    public ResponseEntity<TransactionDTO> createTransaction(@RequestBody TransactionDTO transactionDTO,
+                                                            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        AccountNumberGenerator.requireWellFormed(transactionDTO.getAccountNumber());
+        if (transactionDTO.getToAccountNumber() != null) {
+            AccountNumberGenerator.requireWellFormed(transactionDTO.getToAccountNumber());
+        }
+        String request = "createTransaction|" + transactionDTO.getTransactionType() + "|" + transactionDTO.getAccountNumber()
+                + "|" + transactionDTO.getToAccountNumber() + "|" + transactionDTO.getPaymentMethod() + "|" + IdempotencyService.canonical(transactionDTO.getAmount());
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, request,
+                () -> accountService.createTransaction(transactionDTO)));
     }
 
     @PutMapping("/{transactionId}")
@@ -87,7 +125,7 @@ public class TransactionController {
 
     @GetMapping("/account/{accountId}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
-    @Operation(summary = "Get transaction history", description = "Retrieves transaction history for the specified account. Accessible to Users and Admins.")
+    @Operation(summary = "Get transaction history", description = "Retrieves transaction history for the specified account, including transfers it received (counterpartyAccountId is the account). Accessible to Users and Admins.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Transaction history retrieved"),
             @ApiResponse(responseCode = "403", description = "Access denied")
@@ -96,6 +134,20 @@ public class TransactionController {
         return ResponseEntity.ok(accountService.getTransactionHistory(accountId));
     }
 
+    @GetMapping("/account/{accountId}/page")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @Operation(summary = "Get transaction history page", description = "Retrieves one page of the transaction history for the specified account, including transfers it received, newest first. Pass the returned nextCursor to fetch the following page. Accessible to Users and Admins.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transaction history page retrieved"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    public ResponseEntity<TransactionPageDTO> getTransactionHistoryPage(@PathVariable Long accountId,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(accountService.getTransactionHistoryPage(accountId, cursor, limit));
+    }
+
     @DeleteMapping("/{transactionId}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Delete transaction", description = "Deletes a transaction if it’s a reversal or interest transaction. Admin only.")
@@ -1,11 +1,13 @@
 package com.voltcore.bank.controllers;
 
+import com.voltcore.bank.config.LoginRateLimiter;
 import com.voltcore.bank.dtos.UserDTO;
 import com.voltcore.bank.services.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.http.ResponseEntity;
@@ -27,19 +29,24 @@ import java.util.List;
 public class UserController {
     private final AuthService authService;
     private final AuthenticationManager authenticationManager;
+    private final LoginRateLimiter loginRateLimiter;
 
-    public UserController(AuthService authService, AuthenticationManager authenticationManager) {
+    public UserController(AuthService authService, AuthenticationManager authenticationManager,
+                          LoginRateLimiter loginRateLimiter) {
         this.authService = authService;
         this.authenticationManager = authenticationManager;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
     @PostMapping("/register")
     @Operation(summary = "Register a new user", description = "Creates a new user account with role and email. Public access.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User registered successfully"),
-            @ApiResponse(responseCode = "400", description = "Username already exists")
+            @ApiResponse(responseCode = "400", description = "Username already exists"),
+            @ApiResponse(responseCode = "429", description = "Too many attempts or registrations in progress")
     })
-    public ResponseEntity<UserDTO> register(@RequestBody UserDTO userDTO) {
+    public ResponseEntity<UserDTO> register(@RequestBody UserDTO userDTO, HttpServletRequest request) {
+        loginRateLimiter.acquire(null, request.getRemoteAddr());
         return ResponseEntity.ok(authService.register(userDTO));
     }
 
@@ -47,9 +54,11 @@ public class UserController {
     @Operation(summary = "User login", description = "Authenticates a user with username and password, returning user details. Public access. Admins and Users can log in.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Login successful"),
-            @ApiResponse(responseCode = "401", description = "Invalid username or password")
+            @ApiResponse(responseCode = "401", description = "Invalid username or password"),
+            @ApiResponse(responseCode = "429", description = "Too many attempts or sign-ins in progress")
     })
-    public ResponseEntity<UserDTO> login(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<UserDTO> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        loginRateLimiter.acquire(loginRequest.getUsername(), request.getRemoteAddr());
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
@@ -0,0 +1,15 @@
+package com.voltcore.bank.dtos;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Response body for a batch transfer, with one result per submitted transfer.
+ */
+@Data
+public class BatchTransferResponseDTO {
+    private int completed;
+    private int rejected;
+    private List<BatchTransferResultDTO> results;
+}
@@ -0,0 +1,14 @@
+package com.voltcore.bank.dtos;
+
+import lombok.Data;
+
+/**
+ * Outcome of one transfer in a batch, identified by its position in the request.
+ */
+@Data
+public class BatchTransferResultDTO {
+    private int index;
+    private String status; // COMPLETED, REJECTED
+    private TransactionDTO transaction;
+    private String error;
+}
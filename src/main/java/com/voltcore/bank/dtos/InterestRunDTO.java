@@ -0,0 +1,21 @@
+package com.voltcore.bank.dtos;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for InterestRun entity.
+ */
+@Data
+public class InterestRunDTO {
+    private Long id;
+    private String status;
+    private LocalDate period;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private long lastAccountId;
+    private Long accountsCredited;
+    private String error;
+}
@@ -14,6 +14,7 @@ public class TransactionDTO {
     @JsonIgnore
     private Long id;
     private Long accountId;
+    private Long counterpartyAccountId;
     private String accountNumber;
     private String toAccountNumber;
     private String transactionType;
@@ -0,0 +1,15 @@
+package com.voltcore.bank.dtos;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of an account's transaction history, newest first. {@code nextCursor} is null on the
+ * last page.
+ */
+@Data
+public class TransactionPageDTO {
+    private List<TransactionDTO> transactions;
+    private String nextCursor;
+}
@@ -0,0 +1,16 @@
+package com.voltcore.bank.dtos;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object for a single transfer inside a batch transfer request.
+ */
+@Data
+public class TransferRequestDTO {
+    private String fromAccountNumber;
+    private String toAccountNumber;
+    private BigDecimal amount;
+    private String paymentMethod;
+}
@@ -2,8 +2,10 @@ package com.voltcore.bank.entities;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 /**
  * Entity representing a bank account.
@@ -12,27 +14,46 @@ import java.math.BigDecimal;
 @Data
 public class Account {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "account_seq", allocationSize = 50)
     private Long id;
 
-    @Column(unique = true, nullable = false)
+    /**
+     * Issued by {@code AccountNumberGenerator}; accounts opened before it have UUID numbers.
+     */
+    @Column(unique = true, nullable = false, length = 36, columnDefinition = "varchar(36) collate \"C\"")
     private String accountNumber;
 
     @Column(nullable = false)
     private String accountHolderName;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(nullable = false)
-    private BigDecimal balance;
+    private Money balance;
 
+    @Convert(converter = AccountType.CodeConverter.class)
     @Column(nullable = false)
-    private String accountType;
+    private AccountType accountType;
 
+    @Convert(converter = AccountStatus.CodeConverter.class)
     @Column(nullable = false)
-    private String status = "ACTIVE"; // ACTIVE, CLOSED
+    private AccountStatus status = AccountStatus.ACTIVE;
 
     @Column
     private BigDecimal interestRate = BigDecimal.ZERO;
 
     @Column
     private String email; // For sending notifications
+
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int balanceSlots; // 0 = single balance; N > 0 = credits spread over N AccountBalanceSlot rows
+
+    @Column
+    private LocalDate lastInterestDate; // Period of the last bulk interest run that credited this account
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version; // Optimistic concurrency control
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.voltcore.bank.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Entity representing one sub-balance of a hot account whose credits are spread across slots.
+ * The account's total balance is its own balance plus the balances of all its slots.
+ */
+@Entity
+@Data
+@Table(name = "account_balance_slot", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_account_balance_slot_account_slot", columnNames = {"account_id", "slot"})
+})
+public class AccountBalanceSlot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_balance_slot_seq")
+    @SequenceGenerator(name = "account_balance_slot_seq", sequenceName = "account_balance_slot_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    private Account account;
+
+    @Column(nullable = false)
+    private int slot;
+
+    @Convert(converter = MoneyConverter.class)
+    @Column(nullable = false)
+    private Money balance = Money.ZERO;
+}
@@ -0,0 +1,33 @@
+package com.voltcore.bank.entities;
+
+import jakarta.persistence.Converter;
+
+/**
+ * Lifecycle state of an account.
+ */
+public enum AccountStatus implements CodedEnum {
+    ACTIVE(1),
+    CLOSED(2);
+
+    private final short code;
+
+    AccountStatus(int code) {
+        this.code = (short) code;
+    }
+
+    @Override
+    public short code() {
+        return code;
+    }
+
+    public static AccountStatus parse(String name) {
+        return CodedEnum.parse(AccountStatus.class, name, "Invalid account status");
+    }
+
+    @Converter
+    public static class CodeConverter extends CodedEnumConverter<AccountStatus> {
+        public CodeConverter() {
+            super(AccountStatus.class);
+        }
+    }
+}
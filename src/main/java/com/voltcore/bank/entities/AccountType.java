@@ -0,0 +1,33 @@
+package com.voltcore.bank.entities;
+
+import jakarta.persistence.Converter;
+
+/**
+ * Kind of account.
+ */
+public enum AccountType implements CodedEnum {
+    SAVINGS(1),
+    CHECKING(2);
+
+    private final short code;
+
+    AccountType(int code) {
+        this.code = (short) code;
+    }
+
+    @Override
+    public short code() {
+        return code;
+    }
+
+    public static AccountType parse(String name) {
+        return CodedEnum.parse(AccountType.class, name, "Invalid account type");
+    }
+
+    @Converter
+    public static class CodeConverter extends CodedEnumConverter<AccountType> {
+        public CodeConverter() {
+            super(AccountType.class);
+        }
+    }
+}
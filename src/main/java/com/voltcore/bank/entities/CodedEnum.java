@@ -0,0 +1,24 @@
+package com.voltcore.bank.entities;
+
+/**
+ * An enum persisted as a small integer code instead of its name. Codes are part of the schema:
+ * never renumber or reuse one.
+ */
+public interface CodedEnum {
+    short code();
+
+    /**
+     * Looks up a constant by name, throwing {@link IllegalArgumentException} with
+     * {@code invalidMessage} for null or unknown names.
+     */
+    static <E extends Enum<E>> E parse(Class<E> type, String name, String invalidMessage) {
+        if (name != null) {
+            try {
+                return Enum.valueOf(type, name);
+            } catch (IllegalArgumentException e) {
+                // Reported below
+            }
+        }
+        throw new IllegalArgumentException(invalidMessage);
+    }
+}
@@ -0,0 +1,43 @@
+package com.voltcore.bank.entities;
+
+import jakarta.persistence.AttributeConverter;
+
+import java.lang.reflect.Array;
+
+/**
+ * Stores a {@link CodedEnum} as its {@code smallint} code, reading codes back through a table
+ * indexed by code.
+ */
+public abstract class CodedEnumConverter<E extends Enum<E> & CodedEnum> implements AttributeConverter<E, Short> {
+    private final Class<E> type;
+    private final E[] byCode;
+
+    @SuppressWarnings("unchecked")
+    protected CodedEnumConverter(Class<E> type) {
+        this.type = type;
+        int maxCode = 0;
+        for (E constant : type.getEnumConstants()) {
+            maxCode = Math.max(maxCode, constant.code());
+        }
+        this.byCode = (E[]) Array.newInstance(type, maxCode + 1);
+        for (E constant : type.getEnumConstants()) {
+            byCode[constant.code()] = constant;
+        }
+    }
+
+    @Override
+    public Short convertToDatabaseColumn(E attribute) {
+        return attribute == null ? null : attribute.code();
+    }
+
+    @Override
+    public E convertToEntityAttribute(Short code) {
+        if (code == null) {
+            return null;
+        }
+        if (code < 0 || code >= byCode.length || byCode[code] == null) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName() + " code " + code);
+        }
+        return byCode[code];
+    }
+}
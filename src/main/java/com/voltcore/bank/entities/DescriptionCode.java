@@ -0,0 +1,64 @@
+package com.voltcore.bank.entities;
+
+import jakarta.persistence.Converter;
+
+/**
+ * A generated transaction description, stored as a code and rendered when read. Its parameters
+ * are the account numbers of the transaction's account and counterparty, so the row carries no
+ * copy of them.
+ */
+public enum DescriptionCode implements CodedEnum {
+    DEPOSIT(1, "Deposit to account "),
+    WITHDRAWAL(2, "Withdrawal from account "),
+    TRANSFER(3, "Transfer from ", " to "),
+    INTEREST(4, "Interest applied to account "),
+    DEPOSIT_REVERSAL(5, "Reversal of deposit to account "),
+    WITHDRAWAL_REVERSAL(6, "Reversal of withdrawal from account "),
+    DEPOSIT_UPDATE(7, "Updated deposit to account "),
+    WITHDRAWAL_UPDATE(8, "Updated withdrawal from account ");
+
+    private final short code;
+    private final String prefix;
+    private final String counterpartySeparator; // null unless the text names the counterparty
+
+    DescriptionCode(int code, String prefix) {
+        this(code, prefix, null);
+    }
+
+    DescriptionCode(int code, String prefix, String counterpartySeparator) {
+        this.code = (short) code;
+        this.prefix = prefix;
+        this.counterpartySeparator = counterpartySeparator;
+    }
+
+    @Override
+    public short code() {
+        return code;
+    }
+
+    public String render(String accountNumber, String counterpartyAccountNumber) {
+        return counterpartySeparator == null ? prefix + accountNumber
+                : prefix + accountNumber + counterpartySeparator + counterpartyAccountNumber;
+    }
+
+    /**
+     * The description of {@code transaction}: the free text it was given, or else its code
+     * rendered against its accounts.
+     */
+    public static String describe(Transaction transaction) {
+        DescriptionCode code = transaction.getDescriptionCode();
+        if (code == null) {
+            return transaction.getDescription();
+        }
+        Account counterparty = transaction.getCounterpartyAccount();
+        return code.render(transaction.getAccount().getAccountNumber(),
+                counterparty == null ? null : counterparty.getAccountNumber());
+    }
+
+    @Converter
+    public static class CodeConverter extends CodedEnumConverter<DescriptionCode> {
+        public CodeConverter() {
+            super(DescriptionCode.class);
+        }
+    }
+}
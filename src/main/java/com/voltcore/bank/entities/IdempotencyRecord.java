@@ -0,0 +1,36 @@
+package com.voltcore.bank.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity claiming an idempotency key and storing the first response produced for it.
+ */
+@Entity
+@Data
+@Table(name = "idempotency_record", indexes = {
+        @Index(name = "idx_idempotency_record_expires_at", columnList = "expires_at")
+})
+public class IdempotencyRecord {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_record_seq")
+    @SequenceGenerator(name = "idempotency_record_seq", sequenceName = "idempotency_record_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(unique = true, nullable = false, length = 400)
+    private String idempotencyKey; // <username>:<client key>
+
+    @Column(nullable = false, length = 64)
+    private String requestFingerprint; // SHA-256 of the operation and its arguments
+
+    @Column(columnDefinition = "text")
+    private String responseBody; // JSON; null while the request that claimed the key is still running
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,41 @@
+package com.voltcore.bank.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Entity tracking one bulk interest run over all interest-bearing accounts.
+ */
+@Entity
+@Data
+@Table(name = "interest_run")
+public class InterestRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "interest_run_seq")
+    @SequenceGenerator(name = "interest_run_seq", sequenceName = "interest_run_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(nullable = false)
+    private String status = "RUNNING"; // RUNNING, COMPLETED, FAILED
+
+    @Column(nullable = false)
+    private LocalDate period; // First day of the month whose interest this run credits
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
+    @Column(nullable = false)
+    private long lastAccountId; // Checkpoint: every account with a lower or equal id is done
+
+    private Long accountsCredited;
+
+    private LocalDateTime claimedUntil; // Lease of the instance executing the run, renewed at each checkpoint
+
+    @Column(length = 1000)
+    private String error;
+}
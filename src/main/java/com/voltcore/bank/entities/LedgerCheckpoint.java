@@ -0,0 +1,18 @@
+package com.voltcore.bank.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Entity recording how far the in-memory ledger has been projected into the database.
+ */
+@Entity
+@Data
+@Table(name = "ledger_checkpoint")
+public class LedgerCheckpoint {
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private long lastSequence; // Last ledger command whose effects are committed
+}
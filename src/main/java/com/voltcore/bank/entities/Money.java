@@ -0,0 +1,150 @@
+package com.voltcore.bank.entities;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An immutable amount of money held as a {@code long} count of minor units (cents).
+ * <p>
+ * The bank works in a single currency with {@link #SCALE} decimal places, so arithmetic is plain
+ * {@code long} arithmetic that fails with {@link ArithmeticException} instead of overflowing.
+ * Conversion from {@link BigDecimal} is exact unless a {@link RoundingMode} is given, and
+ * percentages take an explicit rounding mode.
+ */
+public final class Money implements Comparable<Money> {
+    /**
+     * Decimal places of the currency: one major unit is {@code 10^SCALE} minor units.
+     */
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L
+    };
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinorUnits(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * Converts {@code amount} exactly, rejecting values with more than {@link #SCALE} decimal
+     * places or outside the {@code long} range.
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        try {
+            return ofMinorUnits(amount.scaleByPowerOfTen(SCALE).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(amount.stripTrailingZeros().scale() > SCALE
+                    ? "Amount must have at most " + SCALE + " decimal places" : "Amount is out of range");
+        }
+    }
+
+    /**
+     * Converts {@code amount}, rounding to {@link #SCALE} decimal places with {@code rounding}.
+     */
+    public static Money of(BigDecimal amount, RoundingMode rounding) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        return ofMinorUnits(amount.scaleByPowerOfTen(SCALE).setScale(0, rounding).longValueExact());
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public Money plus(Money other) {
+        return other.minorUnits == 0 ? this : ofMinorUnits(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return other.minorUnits == 0 ? this : ofMinorUnits(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    /**
+     * Returns {@code ratePercent} percent of this amount, rounded to minor units with
+     * {@code rounding}. Stays in {@code long} arithmetic unless the product would overflow.
+     */
+    public Money percent(BigDecimal ratePercent, RoundingMode rounding) {
+        int rateScale = ratePercent.scale();
+        if (rateScale >= 0 && rateScale + 2 < POWERS_OF_TEN.length && ratePercent.precision() <= 18) {
+            long rate = ratePercent.unscaledValue().longValue();
+            long high = Math.multiplyHigh(minorUnits, rate);
+            long product = minorUnits * rate;
+            if ((high == 0 && product >= 0) || (high == -1 && product < 0)) {
+                return ofMinorUnits(divide(product, POWERS_OF_TEN[rateScale + 2], rounding));
+            }
+        }
+        return of(toBigDecimal().multiply(ratePercent).movePointLeft(2), rounding);
+    }
+
+    /**
+     * {@code dividend / divisor} for a positive divisor, rounded like {@link BigDecimal} would.
+     */
+    private static long divide(long dividend, long divisor, RoundingMode rounding) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int sign = dividend < 0 ? -1 : 1;
+        int half = Long.compare(Math.abs(remainder), divisor - Math.abs(remainder));
+        boolean awayFromZero = switch (rounding) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> sign > 0;
+            case FLOOR -> sign < 0;
+            case HALF_UP -> half >= 0;
+            case HALF_DOWN -> half > 0;
+            case HALF_EVEN -> half > 0 || (half == 0 && (quotient & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+        return awayFromZero ? quotient + sign : quotient;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    /**
+     * The amount in major units with exactly {@link #SCALE} decimal places, e.g. {@code 12.30}.
+     */
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.voltcore.bank.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity representing an outgoing email notification in the transactional outbox.
+ */
+@Entity
+@Data
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_notification_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+public class Notification {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_seq")
+    @SequenceGenerator(name = "notification_seq", sequenceName = "notification_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String body;
+
+    @Column(nullable = false)
+    private String status = "PENDING"; // PENDING, SENDING, SENT, DEAD
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt; // while SENDING, when the dispatcher's lease runs out
+
+    @Column
+    private LocalDateTime sentAt;
+
+    @Column(length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,34 @@
+package com.voltcore.bank.entities;
+
+import jakarta.persistence.Converter;
+
+/**
+ * How the customer paid for or received a money movement.
+ */
+public enum PaymentMethod implements CodedEnum {
+    PAYPAL(1),
+    CREDIT_CARD(2),
+    BANK_TRANSFER(3);
+
+    private final short code;
+
+    PaymentMethod(int code) {
+        this.code = (short) code;
+    }
+
+    @Override
+    public short code() {
+        return code;
+    }
+
+    public static PaymentMethod parse(String name) {
+        return CodedEnum.parse(PaymentMethod.class, name, "Invalid payment method");
+    }
+
+    @Converter
+    public static class CodeConverter extends CodedEnumConverter<PaymentMethod> {
+        public CodeConverter() {
+            super(PaymentMethod.class);
+        }
+    }
+}
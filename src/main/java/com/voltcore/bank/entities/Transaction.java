@@ -3,7 +3,6 @@ package com.voltcore.bank.entities;
 import jakarta.persistence.*;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -11,29 +10,56 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Data
+@Table(indexes = {
+        @Index(name = "idx_transaction_account_date_id", columnList = "account_id, transaction_date, id"),
+        @Index(name = "idx_transaction_counterparty_date_id", columnList = "counterparty_account_id, transaction_date, id"),
+        @Index(name = "idx_transaction_date", columnList = "transaction_date")
+})
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
     @JoinColumn(name = "account_id", nullable = false)
     private Account account;
 
+    /**
+     * The destination of a transfer, which is booked on the source {@link #account}; null for
+     * every other transaction type.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "counterparty_account_id")
+    private Account counterpartyAccount;
+
+    @Convert(converter = TransactionType.CodeConverter.class)
     @Column(nullable = false)
-    private String transactionType; // DEPOSIT, WITHDRAWAL, TRANSFER, INTEREST, REVERSAL
+    private TransactionType transactionType;
 
+    @Convert(converter = MoneyConverter.class)
     @Column(nullable = false)
-    private BigDecimal amount;
+    private Money amount;
 
     @Column(nullable = false)
     private LocalDateTime transactionDate;
 
+    /**
+     * Generated description, rendered from the account numbers when read.
+     */
+    @Convert(converter = DescriptionCode.CodeConverter.class)
+    @Column
+    private DescriptionCode descriptionCode;
+
+    /**
+     * Free-text description supplied by a client; null when {@link #descriptionCode} is set.
+     */
     private String description;
 
     @Column
     private Long relatedTransactionId; // For reversals
 
+    @Convert(converter = PaymentMethod.CodeConverter.class)
     @Column
-    private String paymentMethod; // PAYPAL, CREDIT_CARD, BANK_TRANSFER
+    private PaymentMethod paymentMethod;
 }
\ No newline at end of file
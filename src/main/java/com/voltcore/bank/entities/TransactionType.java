@@ -0,0 +1,36 @@
+package com.voltcore.bank.entities;
+
+import jakarta.persistence.Converter;
+
+/**
+ * Kind of transaction.
+ */
+public enum TransactionType implements CodedEnum {
+    DEPOSIT(1),
+    WITHDRAWAL(2),
+    TRANSFER(3),
+    INTEREST(4),
+    REVERSAL(5);
+
+    private final short code;
+
+    TransactionType(int code) {
+        this.code = (short) code;
+    }
+
+    @Override
+    public short code() {
+        return code;
+    }
+
+    public static TransactionType parse(String name) {
+        return CodedEnum.parse(TransactionType.class, name, "Invalid transaction type");
+    }
+
+    @Converter
+    public static class CodeConverter extends CodedEnumConverter<TransactionType> {
+        public CodeConverter() {
+            super(TransactionType.class);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.voltcore.bank.ledger;
+
+import com.voltcore.bank.entities.Money;
+
+/**
+ * Immutable in-memory state of one account in the ledger. The writer thread replaces the whole
+ * value on every change, so readers on other threads always see a consistent balance and status.
+ */
+public record LedgerAccount(long id, String accountNumber, Money balance, boolean active) {
+
+    LedgerAccount withBalance(Money newBalance) {
+        return new LedgerAccount(id, accountNumber, newBalance, active);
+    }
+
+    LedgerAccount closed() {
+        return new LedgerAccount(id, accountNumber, balance, false);
+    }
+}
@@ -0,0 +1,153 @@
+package com.voltcore.bank.ledger;
+
+import com.voltcore.bank.entities.DescriptionCode;
+import com.voltcore.bank.entities.Money;
+import com.voltcore.bank.entities.PaymentMethod;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * A command accepted by the {@link LedgerEngine}. Commands are the unit of the write-ahead log:
+ * replaying them in sequence order rebuilds every balance.
+ *
+ * @param sequence        position in the log, assigned by the writer thread
+ * @param type            what the command does
+ * @param accountNumber   the account opened, closed, removed, credited or debited; the source of a transfer
+ * @param toAccountNumber the destination of a transfer, otherwise null
+ * @param accountId       the database id of the account being opened, otherwise 0
+ * @param amount          the amount moved, zero for OPEN, CLOSE and REMOVE
+ * @param paymentMethod   the payment method of a money movement, otherwise null
+ * @param timestamp       when the command was accepted
+ */
+public record LedgerCommand(long sequence, Type type, String accountNumber, String toAccountNumber, long accountId,
+                            Money amount, PaymentMethod paymentMethod, LocalDateTime timestamp) {
+
+    public enum Type {
+        OPEN, CLOSE, DEPOSIT, WITHDRAWAL, TRANSFER, REMOVE // Logged by ordinal: append only
+    }
+
+    static LedgerCommand open(long accountId, String accountNumber) {
+        return new LedgerCommand(0, Type.OPEN, accountNumber, null, accountId, Money.ZERO, null, null);
+    }
+
+    static LedgerCommand close(String accountNumber) {
+        return new LedgerCommand(0, Type.CLOSE, accountNumber, null, 0, Money.ZERO, null, null);
+    }
+
+    static LedgerCommand remove(String accountNumber) {
+        return new LedgerCommand(0, Type.REMOVE, accountNumber, null, 0, Money.ZERO, null, null);
+    }
+
+    static LedgerCommand deposit(String accountNumber, Money amount, PaymentMethod paymentMethod) {
+        return new LedgerCommand(0, Type.DEPOSIT, accountNumber, null, 0, amount, paymentMethod, null);
+    }
+
+    static LedgerCommand withdrawal(String accountNumber, Money amount, PaymentMethod paymentMethod) {
+        return new LedgerCommand(0, Type.WITHDRAWAL, accountNumber, null, 0, amount, paymentMethod, null);
+    }
+
+    static LedgerCommand transfer(String fromAccountNumber, String toAccountNumber, Money amount, PaymentMethod paymentMethod) {
+        return new LedgerCommand(0, Type.TRANSFER, fromAccountNumber, toAccountNumber, 0, amount, paymentMethod, null);
+    }
+
+    LedgerCommand accepted(long acceptedSequence, LocalDateTime acceptedAt) {
+        return new LedgerCommand(acceptedSequence, type, accountNumber, toAccountNumber, accountId, amount, paymentMethod, acceptedAt);
+    }
+
+    /**
+     * Whether the command moves money and is therefore recorded as a transaction.
+     */
+    public boolean isMovement() {
+        return type == Type.DEPOSIT || type == Type.WITHDRAWAL || type == Type.TRANSFER;
+    }
+
+    /**
+     * The transaction description, coded like the database-backed path.
+     */
+    public DescriptionCode descriptionCode() {
+        return switch (type) {
+            case DEPOSIT -> DescriptionCode.DEPOSIT;
+            case WITHDRAWAL -> DescriptionCode.WITHDRAWAL;
+            case TRANSFER -> DescriptionCode.TRANSFER;
+            default -> null;
+        };
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeLong(sequence);
+        out.writeByte(type.ordinal());
+        out.writeUTF(accountNumber);
+        writeNullableUTF(out, toAccountNumber);
+        out.writeLong(accountId);
+        writeAmount(out, amount);
+        writeNullableUTF(out, paymentMethod == null ? null : paymentMethod.name());
+        out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(timestamp.getNano());
+    }
+
+    static LedgerCommand readFrom(DataInput in) throws IOException {
+        long sequence = in.readLong();
+        Type type = Type.values()[in.readByte()];
+        String accountNumber = in.readUTF();
+        String toAccountNumber = readNullableUTF(in);
+        long accountId = in.readLong();
+        Money amount = readAmount(in);
+        String paymentMethodName = readNullableUTF(in);
+        PaymentMethod paymentMethod = paymentMethodName == null ? null : PaymentMethod.valueOf(paymentMethodName);
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        return new LedgerCommand(sequence, type, accountNumber, toAccountNumber, accountId,
+                amount, paymentMethod, timestamp);
+    }
+
+    /**
+     * Writes {@code amount} in the layout of a {@link BigDecimal}: the scale, then the minimal
+     * two's-complement bytes of the unscaled value. Logs and snapshots written before amounts
+     * became {@link Money} use the same layout.
+     */
+    static void writeAmount(DataOutput out, Money amount) throws IOException {
+        long unscaled = amount.minorUnits();
+        int length = (Long.SIZE - Long.numberOfLeadingZeros(unscaled < 0 ? ~unscaled : unscaled)) / 8 + 1;
+        out.writeInt(Money.SCALE);
+        out.writeShort(length);
+        for (int shift = (length - 1) * 8; shift >= 0; shift -= 8) {
+            out.writeByte((int) (unscaled >> shift));
+        }
+    }
+
+    /**
+     * Reads an amount written by {@link #writeAmount}. Older records may carry another scale;
+     * those are rounded half up to cents, as the database columns stored them.
+     */
+    static Money readAmount(DataInput in) throws IOException {
+        int scale = in.readInt();
+        int length = in.readShort();
+        if (scale == Money.SCALE && length <= 8) {
+            long unscaled = in.readByte();
+            for (int i = 1; i < length; i++) {
+                unscaled = (unscaled << 8) | in.readUnsignedByte();
+            }
+            return Money.ofMinorUnits(unscaled);
+        }
+        byte[] unscaled = new byte[length];
+        in.readFully(unscaled);
+        return Money.of(new BigDecimal(new BigInteger(unscaled), scale), RoundingMode.HALF_UP);
+    }
+
+    private static void writeNullableUTF(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableUTF(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
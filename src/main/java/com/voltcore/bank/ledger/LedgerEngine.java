@@ -0,0 +1,503 @@
+package com.voltcore.bank.ledger;
+
+import com.voltcore.bank.entities.Account;
+import com.voltcore.bank.entities.AccountStatus;
+import com.voltcore.bank.entities.Money;
+import com.voltcore.bank.entities.PaymentMethod;
+import com.voltcore.bank.repositories.AccountRepository;
+import com.voltcore.bank.services.BankingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * In-memory ledger that keeps every account balance on the heap and applies money movements on a
+ * single writer thread.
+ * <p>
+ * Callers submit commands to a queue. The writer thread drains it in groups, validates and applies
+ * each command to its private working copy of the balances, appends the accepted group to the
+ * {@link WriteAheadLog} with one fsync, and only then publishes the changed accounts to readers
+ * and acknowledges the callers, so no reader sees a balance that a crash could undo. Accepted
+ * commands are handed to the {@link LedgerProjector}, which writes them into PostgreSQL
+ * asynchronously, so database reads of balances and history trail the ledger slightly.
+ * <p>
+ * Accounts are created and deleted in the database first and only then opened in or removed from
+ * the ledger, after the database transaction has committed. On startup the ledger opens any
+ * account it is missing and removes any closed, empty account the database no longer has.
+ * <p>
+ * Every {@code voltcore.ledger.snapshot-interval} commands the balances are written to a snapshot
+ * and the log starts a new segment; segments that are both snapshotted and projected are deleted.
+ * On startup the latest snapshot is loaded and the log replayed on top of it. Without a snapshot
+ * the balances are loaded from the database, which must then be fully projected: clear the ledger
+ * directory after running with the engine disabled.
+ * <p>
+ * A full queue is reported as 429 Too Many Requests; a stopped or failed engine, or a command not
+ * acknowledged in time, as 503 Service Unavailable.
+ */
+@Component
+@ConditionalOnProperty(name = "voltcore.ledger.enabled", havingValue = "true")
+public class LedgerEngine implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(LedgerEngine.class);
+
+    private final LedgerProjector projector;
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final int maxBatchSize;
+    private final long snapshotInterval;
+    private final Duration commandTimeout;
+    private final BlockingQueue<PendingCommand> inbox;
+    private final Map<String, LedgerAccount> accounts = new ConcurrentHashMap<>(); // Durable state, read by any thread
+    private final Map<String, LedgerAccount> working = new HashMap<>(); // Writer thread only; ahead of accounts until synced
+
+    private WriteAheadLog writeAheadLog;
+    private long lastSequence;
+    private long snapshotSequence;
+    private volatile boolean running;
+    private volatile boolean failed;
+    private Thread writer;
+
+    public LedgerEngine(LedgerProjector projector,
+                        AccountRepository accountRepository,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${voltcore.ledger.directory:data/ledger}") Path directory,
+                        @Value("${voltcore.ledger.max-batch-size:1000}") int maxBatchSize,
+                        @Value("${voltcore.ledger.snapshot-interval:100000}") long snapshotInterval,
+                        @Value("${voltcore.ledger.queue-capacity:100000}") int queueCapacity,
+                        @Value("${voltcore.ledger.command-timeout:5s}") Duration commandTimeout) {
+        this.projector = projector;
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.directory = directory;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+        this.commandTimeout = commandTimeout;
+        this.inbox = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    public Optional<LedgerAccount> account(String accountNumber) {
+        return accountNumber == null ? Optional.empty() : Optional.ofNullable(accounts.get(accountNumber));
+    }
+
+    /**
+     * Registers an account that was just created in the database.
+     */
+    public LedgerCommand open(long accountId, String accountNumber) {
+        return submit(LedgerCommand.open(accountId, accountNumber));
+    }
+
+    /**
+     * Closes an account with a zero balance. Closing a closed account is accepted and changes
+     * nothing, so a retried request succeeds.
+     */
+    public LedgerCommand close(String accountNumber) {
+        return submit(LedgerCommand.close(accountNumber));
+    }
+
+    /**
+     * Forgets a closed account that was just deleted from the database. Removing an unknown
+     * account is accepted and changes nothing.
+     */
+    public LedgerCommand remove(String accountNumber) {
+        return submit(LedgerCommand.remove(accountNumber));
+    }
+
+    public LedgerCommand deposit(String accountNumber, Money amount, PaymentMethod paymentMethod) {
+        return submit(LedgerCommand.deposit(accountNumber, amount, paymentMethod));
+    }
+
+    public LedgerCommand withdraw(String accountNumber, Money amount, PaymentMethod paymentMethod) {
+        return submit(LedgerCommand.withdrawal(accountNumber, amount, paymentMethod));
+    }
+
+    public LedgerCommand transfer(String fromAccountNumber, String toAccountNumber, Money amount, PaymentMethod paymentMethod) {
+        return submit(LedgerCommand.transfer(fromAccountNumber, toAccountNumber, amount, paymentMethod));
+    }
+
+    /**
+     * Queues a command and waits until it is durable or rejected. A rejection surfaces as an
+     * {@link IllegalArgumentException}; a timeout does not withdraw the command, which may still
+     * be applied.
+     */
+    private LedgerCommand submit(LedgerCommand command) {
+        if (!running) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Ledger engine is not running");
+        }
+        PendingCommand pending = new PendingCommand(command, new CompletableFuture<>());
+        if (!inbox.offer(pending)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Ledger engine is overloaded");
+        }
+        try {
+            return pending.result().get(commandTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Timed out waiting for the ledger to accept the command", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for the ledger", e);
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not recover the ledger from " + directory, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while recovering the ledger", e);
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "ledger-writer");
+        writer.start();
+        log.info("Ledger engine started at sequence {} with {} accounts", lastSequence, accounts.size());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        projector.stop();
+        try {
+            if (!failed) {
+                snapshot();
+            }
+            writeAheadLog.close();
+        } catch (IOException e) {
+            log.warn("Could not write the final ledger snapshot: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before the web server accepts requests and stops after it has drained them.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+
+    private void recover() throws IOException, InterruptedException {
+        long projectedSequence = projector.projectedSequence();
+        Optional<LedgerSnapshot> snapshot = LedgerSnapshot.readLatest(directory);
+        if (snapshot.isPresent()) {
+            snapshot.get().accounts().forEach(account -> working.put(account.accountNumber(), account));
+            snapshotSequence = snapshot.get().sequence();
+        } else {
+            loadFromDatabase();
+            snapshotSequence = projectedSequence;
+        }
+        lastSequence = snapshotSequence;
+
+        writeAheadLog = new WriteAheadLog(directory);
+        if (snapshot.isEmpty()) {
+            LedgerSnapshot.write(directory, snapshotSequence, working.values());
+        }
+        List<LedgerCommand> unprojected = new ArrayList<>();
+        writeAheadLog.replay(command -> {
+            if (command.sequence() > lastSequence + 1) {
+                throw new IllegalStateException("Ledger log resumes at sequence " + command.sequence()
+                        + " but the recovered state ends at " + lastSequence);
+            }
+            if (command.sequence() > lastSequence) {
+                apply(command);
+                lastSequence = command.sequence();
+            }
+            if (command.sequence() > projectedSequence) {
+                unprojected.add(command);
+            }
+        });
+        writeAheadLog.startSegment(lastSequence + 1);
+        List<LedgerCommand> reconciled = reconcileWithDatabase();
+        if (!reconciled.isEmpty()) {
+            log.info("Reconciled {} ledger accounts with the database", reconciled.size());
+            writeAheadLog.append(reconciled);
+            unprojected.addAll(reconciled);
+        }
+        accounts.putAll(working);
+
+        projector.start();
+        if (!unprojected.isEmpty()) {
+            log.info("Re-projecting {} ledger commands after sequence {}", unprojected.size(), projectedSequence);
+            projector.enqueue(unprojected);
+        }
+    }
+
+    /**
+     * Seeds the ledger from the database, folding any balance slots back into their accounts.
+     */
+    private void loadFromDatabase() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Account account : accountRepository.findAll()) {
+                if (account.getBalanceSlots() > 0) {
+                    accountRepository.sweepBalanceSlots(account.getId());
+                }
+            }
+        });
+        for (Account account : accountRepository.findAll()) {
+            working.put(account.getAccountNumber(), new LedgerAccount(account.getId(), account.getAccountNumber(),
+                    account.getBalance(), account.getStatus() == AccountStatus.ACTIVE));
+        }
+    }
+
+    /**
+     * Opens the accounts the database has and the ledger lacks, and removes the closed, empty
+     * accounts the database no longer has, as happens when the process stops between a database
+     * commit and the ledger command that follows it. Returns the commands applied, which still
+     * need to be logged.
+     */
+    private List<LedgerCommand> reconcileWithDatabase() {
+        LocalDateTime now = LocalDateTime.now();
+        List<LedgerCommand> commands = new ArrayList<>();
+        Set<String> databaseAccountNumbers = new HashSet<>();
+        for (Account account : accountRepository.findAll()) {
+            databaseAccountNumbers.add(account.getAccountNumber());
+            if (!working.containsKey(account.getAccountNumber())) {
+                commands.add(LedgerCommand.open(account.getId(), account.getAccountNumber()).accepted(lastSequence + commands.size() + 1, now));
+                if (account.getStatus() != AccountStatus.ACTIVE) {
+                    commands.add(LedgerCommand.close(account.getAccountNumber()).accepted(lastSequence + commands.size() + 1, now));
+                }
+            }
+        }
+        for (LedgerAccount account : working.values()) {
+            if (databaseAccountNumbers.contains(account.accountNumber())) {
+                continue;
+            }
+            if (account.active() || account.balance().signum() != 0) {
+                log.warn("Ledger account {} is not in the database but still holds {}; keeping it", account.accountNumber(), account.balance());
+            } else {
+                commands.add(LedgerCommand.remove(account.accountNumber()).accepted(lastSequence + commands.size() + 1, now));
+            }
+        }
+        for (LedgerCommand command : commands) {
+            apply(command);
+            lastSequence = command.sequence();
+        }
+        return commands;
+    }
+
+    private void runWriter() {
+        List<PendingCommand> batch = new ArrayList<>(maxBatchSize);
+        List<PendingCommand> acceptedPending = new ArrayList<>(maxBatchSize);
+        List<LedgerCommand> accepted = new ArrayList<>(maxBatchSize);
+        while (running || !inbox.isEmpty()) {
+            try {
+                PendingCommand first = inbox.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                inbox.drainTo(batch, maxBatchSize - 1);
+
+                LocalDateTime now = LocalDateTime.now();
+                for (PendingCommand pending : batch) {
+                    IllegalArgumentException rejection = validate(pending.command());
+                    if (rejection != null) {
+                        pending.result().completeExceptionally(rejection);
+                        continue;
+                    }
+                    LedgerCommand command = pending.command().accepted(lastSequence + 1, now);
+                    apply(command);
+                    lastSequence = command.sequence();
+                    accepted.add(command);
+                    acceptedPending.add(pending.withCommand(command));
+                }
+
+                if (!accepted.isEmpty()) {
+                    writeAheadLog.append(accepted);
+                    publish(accepted);
+                    for (PendingCommand pending : acceptedPending) {
+                        pending.result().complete(pending.command());
+                    }
+                    projector.enqueue(accepted);
+                    if (lastSequence - snapshotSequence >= snapshotInterval) {
+                        snapshot();
+                    }
+                }
+            } catch (IOException e) {
+                halt(batch, e);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                halt(batch, e);
+                return;
+            } finally {
+                batch.clear();
+                acceptedPending.clear();
+                accepted.clear();
+            }
+        }
+    }
+
+    /**
+     * Copies the accounts {@code commands} touched from the working state to the published one,
+     * once the commands are in the log.
+     */
+    private void publish(List<LedgerCommand> commands) {
+        for (LedgerCommand command : commands) {
+            publish(command.accountNumber());
+            if (command.toAccountNumber() != null) {
+                publish(command.toAccountNumber());
+            }
+        }
+    }
+
+    private void publish(String accountNumber) {
+        LedgerAccount account = working.get(accountNumber);
+        if (account == null) {
+            accounts.remove(accountNumber);
+        } else {
+            accounts.put(accountNumber, account);
+        }
+    }
+
+    /**
+     * Stops accepting commands after the log could not be written. The working balances may now
+     * be ahead of the log; they are never published and nothing more is acknowledged, and a
+     * restart recovers from disk.
+     */
+    private void halt(List<PendingCommand> batch, Exception cause) {
+        log.error("Ledger writer stopped; restart the application to recover from the write-ahead log", cause);
+        failed = true;
+        running = false;
+        ResponseStatusException failure = new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Ledger write-ahead log failed", cause);
+        for (PendingCommand pending : batch) {
+            pending.result().completeExceptionally(failure);
+        }
+        PendingCommand pending;
+        while ((pending = inbox.poll()) != null) {
+            pending.result().completeExceptionally(failure);
+        }
+    }
+
+    private void snapshot() throws IOException {
+        if (lastSequence == snapshotSequence) {
+            return;
+        }
+        LedgerSnapshot.write(directory, lastSequence, working.values());
+        snapshotSequence = lastSequence;
+        writeAheadLog.startSegment(lastSequence + 1);
+        writeAheadLog.deleteSegmentsThrough(Math.min(snapshotSequence, projector.projectedSequence()));
+    }
+
+    private IllegalArgumentException validate(LedgerCommand command) {
+        LedgerAccount account = working.get(command.accountNumber());
+        return switch (command.type()) {
+            case OPEN -> account != null ? new IllegalArgumentException("Account already exists") : null;
+            case CLOSE -> {
+                if (account == null) {
+                    yield BankingException.notFound("Account not found");
+                }
+                yield account.active() && account.balance().signum() != 0 ? new IllegalArgumentException("Account balance must be zero to close") : null;
+            }
+            case REMOVE -> {
+                if (account == null) {
+                    yield null;
+                }
+                yield account.active() ? new IllegalArgumentException("Account must be closed before deletion") : null;
+            }
+            case DEPOSIT -> {
+                if (account == null) {
+                    yield BankingException.notFound("Account not found");
+                }
+                yield account.active() ? null : BankingException.inactiveAccount("Account is not active");
+            }
+            case WITHDRAWAL -> {
+                if (account == null) {
+                    yield BankingException.notFound("Account not found");
+                }
+                if (!account.active()) {
+                    yield BankingException.inactiveAccount("Account is not active");
+                }
+                yield account.balance().compareTo(command.amount()) < 0 ? BankingException.insufficientFunds("Insufficient funds") : null;
+            }
+            case TRANSFER -> {
+                LedgerAccount toAccount = working.get(command.toAccountNumber());
+                if (account == null) {
+                    yield BankingException.notFound("Source account not found");
+                }
+                if (toAccount == null) {
+                    yield BankingException.notFound("Destination account not found");
+                }
+                if (!account.active() || !toAccount.active()) {
+                    yield BankingException.inactiveAccount("One or both accounts are not active");
+                }
+                yield account.balance().compareTo(command.amount()) < 0 ? BankingException.insufficientFunds("Insufficient funds") : null;
+            }
+        };
+    }
+
+    private void apply(LedgerCommand command) {
+        String accountNumber = command.accountNumber();
+        switch (command.type()) {
+            case OPEN -> working.put(accountNumber, new LedgerAccount(command.accountId(), accountNumber, Money.ZERO, true));
+            case CLOSE -> working.computeIfPresent(accountNumber, (number, account) -> account.closed());
+            case REMOVE -> working.remove(accountNumber);
+            case DEPOSIT -> credit(accountNumber, command.amount());
+            case WITHDRAWAL -> debit(accountNumber, command.amount());
+            case TRANSFER -> {
+                debit(accountNumber, command.amount());
+                credit(command.toAccountNumber(), command.amount());
+            }
+        }
+    }
+
+    private void credit(String accountNumber, Money amount) {
+        working.computeIfPresent(accountNumber, (number, account) -> account.withBalance(account.balance().plus(amount)));
+    }
+
+    private void debit(String accountNumber, Money amount) {
+        working.computeIfPresent(accountNumber, (number, account) -> account.withBalance(account.balance().minus(amount)));
+    }
+
+    private record PendingCommand(LedgerCommand command, CompletableFuture<LedgerCommand> result) {
+        PendingCommand withCommand(LedgerCommand acceptedCommand) {
+            return new PendingCommand(acceptedCommand, result);
+        }
+    }
+}
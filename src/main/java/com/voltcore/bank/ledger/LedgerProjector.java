@@ -0,0 +1,243 @@
+package com.voltcore.bank.ledger;
+
+import com.voltcore.bank.entities.Account;
+import com.voltcore.bank.entities.AccountStatus;
+import com.voltcore.bank.entities.LedgerCheckpoint;
+import com.voltcore.bank.entities.Transaction;
+import com.voltcore.bank.entities.TransactionType;
+import com.voltcore.bank.repositories.AccountRepository;
+import com.voltcore.bank.repositories.LedgerCheckpointRepository;
+import com.voltcore.bank.repositories.TransactionRepository;
+import com.voltcore.bank.services.EmailService;
+import com.voltcore.bank.services.TransactionRangeCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Copies accepted ledger commands into PostgreSQL in the background.
+ * <p>
+ * Commands are applied in batches: one transaction adjusts the balances of the accounts involved,
+ * marks closed accounts CLOSED, inserts the transaction rows, queues the notification emails and
+ * advances the checkpoint, so
+ * after a crash projection resumes exactly after the last committed command. A failing batch is
+ * retried until it succeeds; while the database is down, the queue fills and eventually slows the
+ * ledger writer instead of dropping commands.
+ */
+@Component
+@ConditionalOnProperty(name = "voltcore.ledger.enabled", havingValue = "true")
+public class LedgerProjector {
+    private static final Logger log = LoggerFactory.getLogger(LedgerProjector.class);
+    private static final String CHECKPOINT = "projection";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final LedgerCheckpointRepository ledgerCheckpointRepository;
+    private final EmailService emailService;
+    private final TransactionRangeCache transactionRangeCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final BlockingQueue<LedgerCommand> queue;
+    private volatile long projectedSequence = -1;
+    private volatile boolean running;
+    private Thread thread;
+
+    public LedgerProjector(AccountRepository accountRepository,
+                           TransactionRepository transactionRepository,
+                           LedgerCheckpointRepository ledgerCheckpointRepository,
+                           EmailService emailService,
+                           TransactionRangeCache transactionRangeCache,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${voltcore.ledger.projection.batch-size:500}") int batchSize,
+                           @Value("${voltcore.ledger.projection.queue-capacity:100000}") int queueCapacity) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.ledgerCheckpointRepository = ledgerCheckpointRepository;
+        this.emailService = emailService;
+        this.transactionRangeCache = transactionRangeCache;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    /**
+     * The sequence of the last command committed to the database, read from the checkpoint on
+     * first use.
+     */
+    public long projectedSequence() {
+        if (projectedSequence < 0) {
+            projectedSequence = ledgerCheckpointRepository.findById(CHECKPOINT)
+                    .map(LedgerCheckpoint::getLastSequence)
+                    .orElse(0L);
+        }
+        return projectedSequence;
+    }
+
+    /**
+     * Hands accepted commands to the projector, blocking while the queue is full.
+     */
+    void enqueue(List<LedgerCommand> commands) throws InterruptedException {
+        for (LedgerCommand command : commands) {
+            queue.put(command);
+        }
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        projectedSequence();
+        running = true;
+        thread = new Thread(this::run, "ledger-projector");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops after projecting everything already queued.
+     */
+    synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    private void run() {
+        List<LedgerCommand> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                LedgerCommand first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                projectWithRetry(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void projectWithRetry(List<LedgerCommand> batch) throws InterruptedException {
+        long backoffMillis = 100;
+        while (true) {
+            try {
+                project(batch);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Ledger projection of sequences {}..{} failed, retrying in {} ms: {}",
+                        batch.get(0).sequence(), batch.get(batch.size() - 1).sequence(), backoffMillis, e.getMessage());
+                Thread.sleep(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2, 10_000);
+            }
+        }
+    }
+
+    private void project(List<LedgerCommand> batch) {
+        long lastSequence = batch.get(batch.size() - 1).sequence();
+        if (lastSequence <= projectedSequence) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> accountNumbers = new HashSet<>();
+            for (LedgerCommand command : batch) {
+                if ((command.isMovement() || command.type() == LedgerCommand.Type.CLOSE) && command.sequence() > projectedSequence) {
+                    accountNumbers.add(command.accountNumber());
+                    if (command.toAccountNumber() != null) {
+                        accountNumbers.add(command.toAccountNumber());
+                    }
+                }
+            }
+            Map<String, Account> accounts = accountNumbers.isEmpty() ? Map.of()
+                    : accountRepository.findAllForUpdateByAccountNumberIn(accountNumbers).stream()
+                    .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+
+            List<Transaction> transactions = new ArrayList<>();
+            for (LedgerCommand command : batch) {
+                if (command.sequence() <= projectedSequence) {
+                    continue;
+                }
+                Account account = accounts.get(command.accountNumber());
+                if (command.type() == LedgerCommand.Type.CLOSE && account != null) {
+                    account.setStatus(AccountStatus.CLOSED);
+                }
+                if (!command.isMovement()) {
+                    continue;
+                }
+                if (account == null) {
+                    log.warn("Skipping ledger command {}: account {} is not in the database", command.sequence(), command.accountNumber());
+                    continue;
+                }
+                switch (command.type()) {
+                    case DEPOSIT -> account.setBalance(account.getBalance().plus(command.amount()));
+                    case WITHDRAWAL -> account.setBalance(account.getBalance().minus(command.amount()));
+                    case TRANSFER -> {
+                        Account toAccount = accounts.get(command.toAccountNumber());
+                        if (toAccount == null) {
+                            log.warn("Skipping ledger command {}: account {} is not in the database", command.sequence(), command.toAccountNumber());
+                            continue;
+                        }
+                        account.setBalance(account.getBalance().minus(command.amount()));
+                        toAccount.setBalance(toAccount.getBalance().plus(command.amount()));
+                    }
+                    default -> {
+                    }
+                }
+
+                Transaction transaction = new Transaction();
+                transaction.setAccount(account);
+                if (command.toAccountNumber() != null) {
+                    transaction.setCounterpartyAccount(accounts.get(command.toAccountNumber()));
+                }
+                transaction.setTransactionType(TransactionType.valueOf(command.type().name()));
+                transaction.setAmount(command.amount());
+                transaction.setTransactionDate(command.timestamp());
+                transaction.setDescriptionCode(command.descriptionCode());
+                transaction.setPaymentMethod(command.paymentMethod());
+                transactions.add(transaction);
+            }
+            transactionRepository.saveAll(transactions);
+            Set<LocalDate> days = new HashSet<>();
+            for (Transaction transaction : transactions) {
+                emailService.queueTransactionEmail(transaction);
+                if (days.add(transaction.getTransactionDate().toLocalDate())) {
+                    // Normally today, but a projection backlog can reach into closed days
+                    transactionRangeCache.invalidate(transaction.getTransactionDate());
+                }
+            }
+
+            LedgerCheckpoint checkpoint = ledgerCheckpointRepository.findById(CHECKPOINT).orElseGet(() -> {
+                LedgerCheckpoint created = new LedgerCheckpoint();
+                created.setName(CHECKPOINT);
+                return created;
+            });
+            checkpoint.setLastSequence(lastSequence);
+            ledgerCheckpointRepository.save(checkpoint);
+        });
+        projectedSequence = lastSequence;
+    }
+}
@@ -0,0 +1,94 @@
+package com.voltcore.bank.ledger;
+
+import com.voltcore.bank.entities.Money;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Point-in-time copy of every ledger account, taken after the command with {@link #sequence()}.
+ * <p>
+ * Snapshots are written to a temporary file, synced and atomically renamed, so a crash never
+ * leaves a partial snapshot behind. Only the latest snapshot is kept.
+ */
+record LedgerSnapshot(long sequence, List<LedgerAccount> accounts) {
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+    private static final int FORMAT_VERSION = 1;
+
+    static Optional<LedgerSnapshot> readLatest(Path directory) throws IOException {
+        Optional<Path> latest = snapshots(directory).stream().reduce((first, second) -> second);
+        if (latest.isEmpty()) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(latest.get())))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported ledger snapshot format in " + latest.get());
+            }
+            long sequence = in.readLong();
+            int count = in.readInt();
+            List<LedgerAccount> accounts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                String accountNumber = in.readUTF();
+                Money balance = LedgerCommand.readAmount(in);
+                boolean active = in.readBoolean();
+                accounts.add(new LedgerAccount(id, accountNumber, balance, active));
+            }
+            return Optional.of(new LedgerSnapshot(sequence, accounts));
+        }
+    }
+
+    static void write(Path directory, long sequence, Collection<LedgerAccount> accounts) throws IOException {
+        Path temporary = directory.resolve(PREFIX + "tmp");
+        try (OutputStream file = Files.newOutputStream(temporary);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(sequence);
+            out.writeInt(accounts.size());
+            for (LedgerAccount account : accounts) {
+                out.writeLong(account.id());
+                out.writeUTF(account.accountNumber());
+                LedgerCommand.writeAmount(out, account.balance());
+                out.writeBoolean(account.active());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Path target = directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        for (Path older : snapshots(directory)) {
+            if (!older.equals(target)) {
+                Files.delete(older);
+            }
+        }
+    }
+
+    private static List<Path> snapshots(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> path.getFileName().toString().startsWith(PREFIX)
+                            && path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.voltcore.bank.ledger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of {@link LedgerCommand}s, split into segment files named after the first
+ * sequence they may contain.
+ * <p>
+ * Each record is framed as {@code [length][crc32c][payload]}. {@link #append} writes a whole
+ * group of records and forces it to disk with a single fsync, so the cost of the sync is shared
+ * by every command in the group. On replay a short or corrupt record at the end of the last
+ * segment marks a write that was never acknowledged, and the segment is truncated there. Anywhere
+ * else it means acknowledged commands were lost, as does a gap in the sequence, and replay fails
+ * rather than recover wrong balances. Not thread-safe: only the ledger writer thread appends.
+ */
+class WriteAheadLog implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES;
+
+    private final Path directory;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+    private FileChannel channel;
+
+    WriteAheadLog(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Reads every record of every segment in sequence order, truncating a torn tail of the last
+     * segment.
+     *
+     * @throws IOException if a record before the tail is damaged or a sequence is missing
+     */
+    void replay(Consumer<LedgerCommand> consumer) throws IOException {
+        List<Path> segments = segments();
+        long nextSequence = -1; // unknown until the first record
+        for (int i = 0; i < segments.size(); i++) {
+            nextSequence = replaySegment(segments.get(i), i == segments.size() - 1, nextSequence, consumer);
+        }
+    }
+
+    /**
+     * Starts a new segment; later appends go there.
+     */
+    void startSegment(long firstSequence) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        channel = FileChannel.open(segmentPath(firstSequence),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Appends the commands and returns once they are durable.
+     */
+    void append(List<LedgerCommand> commands) throws IOException {
+        buffer.reset();
+        DataOutputStream out = new DataOutputStream(buffer);
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+        CRC32C crc = new CRC32C();
+        for (LedgerCommand command : commands) {
+            payload.reset();
+            command.writeTo(new DataOutputStream(payload));
+            crc.reset();
+            crc.update(payload.toByteArray());
+            out.writeInt(payload.size());
+            out.writeInt((int) crc.getValue());
+            payload.writeTo(out);
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Deletes segments whose commands all have a sequence of at most {@code sequence}. The current
+     * segment is never deleted.
+     */
+    void deleteSegmentsThrough(long sequence) throws IOException {
+        List<Path> segments = segments();
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            long nextFirstSequence = firstSequence(segments.get(i + 1));
+            if (nextFirstSequence - 1 > sequence) {
+                break;
+            }
+            Files.delete(segments.get(i));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Replays one segment and returns the sequence the next record must have.
+     */
+    private long replaySegment(Path segment, boolean last, long nextSequence, Consumer<LedgerCommand> consumer)
+            throws IOException {
+        if (nextSequence < 0) {
+            nextSequence = firstSequence(segment);
+        }
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            CRC32C crc = new CRC32C();
+            while (position < size) {
+                header.clear();
+                if (!readFully(in, header, position)) {
+                    break;
+                }
+                header.flip();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                if (length <= 0 || position + HEADER_BYTES + length > size) {
+                    break;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                if (!readFully(in, payload, position + HEADER_BYTES)) {
+                    break;
+                }
+                crc.reset();
+                crc.update(payload.array());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                LedgerCommand command = LedgerCommand.readFrom(new DataInputStream(new ByteArrayInputStream(payload.array())));
+                if (command.sequence() != nextSequence) {
+                    throw new IOException("Expected sequence " + nextSequence + " but found " + command.sequence()
+                            + " in " + segment.getFileName() + " at byte " + position);
+                }
+                consumer.accept(command);
+                nextSequence++;
+                position += HEADER_BYTES + length;
+            }
+            if (position < size) {
+                if (!last) {
+                    throw new IOException("Damaged record in " + segment.getFileName() + " at byte " + position
+                            + ", which is not the last segment");
+                }
+                log.warn("Truncating {} unacknowledged bytes at the end of {}", size - position, segment.getFileName());
+                in.truncate(position);
+                in.force(true);
+            }
+        }
+        return nextSequence;
+    }
+
+    /**
+     * Fills {@code buffer} from {@code position}, returning false if the file ends first.
+     */
+    private static boolean readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = in.read(buffer, position + buffer.position());
+            if (read < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>(files
+                    .filter(path -> path.getFileName().toString().startsWith(PREFIX)
+                            && path.getFileName().toString().endsWith(SUFFIX))
+                    .toList());
+            segments.sort((a, b) -> Long.compare(firstSequence(a), firstSequence(b)));
+            return segments;
+        }
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
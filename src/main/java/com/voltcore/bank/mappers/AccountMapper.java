@@ -3,12 +3,16 @@ package com.voltcore.bank.mappers;
 import com.voltcore.bank.dtos.AccountDTO;
 import com.voltcore.bank.entities.Account;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 /**
  * Mapper interface for converting between Account entity and AccountDTO.
  */
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = MoneyMapping.class)
 public interface AccountMapper {
     AccountDTO toDTO(Account account);
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "balanceSlots", ignore = true)
+    @Mapping(target = "lastInterestDate", ignore = true)
     Account toEntity(AccountDTO accountDTO);
 }
\ No newline at end of file
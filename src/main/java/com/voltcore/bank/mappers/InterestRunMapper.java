@@ -0,0 +1,13 @@
+package com.voltcore.bank.mappers;
+
+import com.voltcore.bank.dtos.InterestRunDTO;
+import com.voltcore.bank.entities.InterestRun;
+import org.mapstruct.Mapper;
+
+/**
+ * Mapper interface for converting InterestRun entities to InterestRunDTO.
+ */
+@Mapper(componentModel = "spring")
+public interface InterestRunMapper {
+    InterestRunDTO toDTO(InterestRun interestRun);
+}
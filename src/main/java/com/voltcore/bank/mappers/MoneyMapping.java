@@ -0,0 +1,22 @@
+package com.voltcore.bank.mappers;
+
+import com.voltcore.bank.entities.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * Converts between {@link Money} in entities and {@link BigDecimal} in DTOs. Used by the
+ * MapStruct mappers; the methods are static so generated mappers call them directly.
+ */
+public final class MoneyMapping {
+    private MoneyMapping() {
+    }
+
+    public static BigDecimal toBigDecimal(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+
+    public static Money toMoney(BigDecimal amount) {
+        return amount == null ? null : Money.of(amount);
+    }
+}
@@ -1,6 +1,7 @@
 package com.voltcore.bank.mappers;
 
 import com.voltcore.bank.dtos.TransactionDTO;
+import com.voltcore.bank.entities.DescriptionCode;
 import com.voltcore.bank.entities.Transaction;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -8,11 +9,20 @@ import org.mapstruct.Mapping;
 /**
  * Mapper interface for converting between Transaction entity and TransactionDTO.
  */
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = MoneyMapping.class, imports = DescriptionCode.class)
 public interface TransactionMapper {
     @Mapping(source = "account.id", target = "accountId")
+    @Mapping(source = "counterpartyAccount.id", target = "counterpartyAccountId")
+    @Mapping(target = "description", expression = "java(DescriptionCode.describe(transaction))")
     TransactionDTO toDTO(Transaction transaction);
 
     @Mapping(source = "accountId", target = "account.id")
+    @Mapping(target = "counterpartyAccount", ignore = true)
+    @Mapping(target = "descriptionCode", ignore = true)
     Transaction toEntity(TransactionDTO transactionDTO);
+
+    /**
+     * Returns a new DTO with the same values, for handing out DTOs that are shared.
+     */
+    TransactionDTO copy(TransactionDTO transactionDTO);
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.voltcore.bank.mappers;
 import com.voltcore.bank.dtos.UserDTO;
 import com.voltcore.bank.entities.User;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 /**
  * Mapper interface for converting between User entity and UserDTO.
@@ -10,5 +11,6 @@ import org.mapstruct.Mapper;
 @Mapper(componentModel = "spring")
 public interface UserMapper {
     UserDTO toDTO(User user);
+    @Mapping(target = "tokenVersion", ignore = true)
     User toEntity(UserDTO userDTO);
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.voltcore.bank.repositories;
+
+import com.voltcore.bank.entities.AccountBalanceSlot;
+import com.voltcore.bank.entities.Money;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+
+/**
+ * Repository interface for AccountBalanceSlot entity operations.
+ */
+public interface AccountBalanceSlotRepository extends JpaRepository<AccountBalanceSlot, Long> {
+    long countByAccountId(Long accountId);
+
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM AccountBalanceSlot s WHERE s.account.id = :accountId")
+    BigDecimal sumBalanceByAccountId(@Param("accountId") Long accountId);
+
+    /**
+     * Subtracts {@code amount} from one slot if it holds at least that much.
+     */
+    @Modifying
+    @Query("UPDATE AccountBalanceSlot s SET s.balance = s.balance - :amount "
+            + "WHERE s.account.id = :accountId AND s.slot = :slot AND s.balance >= :amount")
+    int debitSlot(@Param("accountId") Long accountId, @Param("slot") int slot, @Param("amount") Money amount);
+
+    /**
+     * Empties every slot of an account and returns what they held. Unlike
+     * {@link AccountRepository#sweepBalanceSlots}, the account row is left alone: the caller holds
+     * its lock and adds the result to the loaded account itself.
+     */
+    @Query(value = """
+            WITH drained AS (
+                UPDATE account_balance_slot s SET balance = 0
+                FROM (SELECT id, balance FROM account_balance_slot
+                      WHERE account_id = :accountId ORDER BY slot FOR UPDATE) old
+                WHERE s.id = old.id
+                RETURNING old.balance
+            )
+            SELECT COALESCE(SUM(balance), 0) FROM drained""", nativeQuery = true)
+    BigDecimal drainSlots(@Param("accountId") Long accountId);
+}
@@ -1,12 +1,174 @@
 package com.voltcore.bank.repositories;
 
 import com.voltcore.bank.entities.Account;
+import com.voltcore.bank.entities.AccountStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Repository for Account entities. Native queries compare enum columns by code: status 1 is
+ * {@link AccountStatus#ACTIVE}, transaction type 4 is
+ * {@link com.voltcore.bank.entities.TransactionType#INTEREST} and description code 4 is
+ * {@link com.voltcore.bank.entities.DescriptionCode#INTEREST}.
+ */
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByAccountNumber(String accountNumber);
-    List<Account> findByStatus(String status);
-}
\ No newline at end of file
+    List<Account> findByStatus(AccountStatus status);
+
+    /**
+     * Loads and row-locks all accounts with the given numbers in one query. Rows are locked in
+     * account number order, the same order single transfers update them in.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber IN :accountNumbers ORDER BY a.accountNumber")
+    List<Account> findAllForUpdateByAccountNumberIn(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<Account> findForUpdateByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Adds {@code amountMinorUnits} cents to an ACTIVE account in one statement. Accounts with
+     * balance slots are credited on slot {@code seed mod balance_slots} instead of on the account
+     * row. Returns the account id, or empty if no active account matched. A slot credit holds a
+     * share lock on the account row, so it cannot interleave with closing the account: whichever
+     * locks the row second sees the other's outcome.
+     */
+    @Query(value = """
+            WITH target AS (
+                SELECT id, balance_slots, :amountMinorUnits * 0.01 AS amount FROM account
+                WHERE account_number = :accountNumber AND status = 1
+            ), slot_account AS (
+                SELECT a.id, t.balance_slots, t.amount FROM account a
+                JOIN target t ON a.id = t.id
+                WHERE t.balance_slots > 0 AND a.status = 1
+                FOR SHARE OF a
+            ), account_credit AS (
+                UPDATE account a SET balance = a.balance + t.amount, version = a.version + 1
+                FROM target t
+                WHERE a.id = t.id AND t.balance_slots = 0 AND a.status = 1
+                RETURNING a.id
+            ), slot_credit AS (
+                UPDATE account_balance_slot s SET balance = s.balance + l.amount
+                FROM slot_account l
+                WHERE s.account_id = l.id AND s.slot = MOD(:seed, l.balance_slots)
+                RETURNING s.account_id
+            )
+            SELECT id FROM account_credit
+            UNION ALL
+            SELECT account_id FROM slot_credit""", nativeQuery = true)
+    Optional<Long> creditActive(@Param("accountNumber") String accountNumber, @Param("amountMinorUnits") long amountMinorUnits,
+                                @Param("seed") int seed);
+
+    /**
+     * Subtracts {@code amountMinorUnits} cents from the balance of an ACTIVE account holding at
+     * least that much, in one statement. Returns the account id, or empty if no account qualified.
+     */
+    @Query(value = """
+            UPDATE account SET balance = balance - :amountMinorUnits * 0.01, version = version + 1
+            WHERE account_number = :accountNumber AND status = 1 AND balance >= :amountMinorUnits * 0.01
+            RETURNING id""", nativeQuery = true)
+    Optional<Long> debitActive(@Param("accountNumber") String accountNumber, @Param("amountMinorUnits") long amountMinorUnits);
+
+    /**
+     * Moves the balances of all slots of an account back onto the account row, locking the slots
+     * in slot order.
+     */
+    @Modifying
+    @Query(value = """
+            WITH swept AS (
+                UPDATE account_balance_slot s SET balance = 0
+                FROM (SELECT id, balance FROM account_balance_slot
+                      WHERE account_id = :accountId ORDER BY slot FOR UPDATE) old
+                WHERE s.id = old.id
+                RETURNING old.balance
+            )
+            UPDATE account SET balance = balance + (SELECT COALESCE(SUM(balance), 0) FROM swept),
+                               version = version + 1
+            WHERE id = :accountId""", nativeQuery = true)
+    int sweepBalanceSlots(@Param("accountId") Long accountId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Account a SET a.balanceSlots = :balanceSlots, a.version = a.version + 1 WHERE a.id = :accountId")
+    int updateBalanceSlots(@Param("accountId") Long accountId, @Param("balanceSlots") int balanceSlots);
+
+    /**
+     * Returns, in id order, up to {@code limit} ids of active interest-bearing accounts after
+     * {@code afterId}. Used to cut a bulk interest run into keyset chunks.
+     */
+    @Query(value = """
+            SELECT id FROM account
+            WHERE id > :afterId AND status = 1 AND interest_rate > 0
+            ORDER BY id
+            LIMIT :limit""", nativeQuery = true)
+    List<Long> findInterestBearingIdsAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * Credits interest to every active interest-bearing account with an id in
+     * {@code (fromId, toId]} not yet credited for {@code period}, and records an INTEREST
+     * transaction for each non-zero amount. Interest is computed on the total balance including
+     * balance slots and rounded half up to cents. Returns the number of transactions inserted.
+     * <p>
+     * Transaction ids follow Hibernate's pooled optimizer for {@code transaction_seq}
+     * (allocation size 50): each {@code nextval} is the top of a block of 50 ids, so one is
+     * fetched per 50 rows rather than per row.
+     */
+    @Modifying
+    @Query(value = """
+            WITH accrual AS (
+                SELECT a.id,
+                       ROUND((a.balance + (SELECT COALESCE(SUM(s.balance), 0) FROM account_balance_slot s
+                                           WHERE s.account_id = a.id)) * a.interest_rate / 100, 2) AS interest
+                FROM account a
+                WHERE a.id > :fromId AND a.id <= :toId AND a.status = 1 AND a.interest_rate > 0
+                  AND (a.last_interest_date IS NULL OR a.last_interest_date < :period)
+                ORDER BY a.id
+                FOR UPDATE OF a
+            ), credited AS (
+                UPDATE account a SET balance = a.balance + c.interest, last_interest_date = :period,
+                                     version = a.version + 1
+                FROM accrual c
+                WHERE a.id = c.id
+                RETURNING c.id, c.interest
+            ), numbered AS (
+                SELECT id, interest, row_number() OVER (ORDER BY id) - 1 AS n
+                FROM credited
+                WHERE interest > 0
+            ), blocks AS (
+                SELECT block, nextval('transaction_seq') AS hi
+                FROM generate_series(0, (SELECT (count(*) + 49) / 50 FROM numbered) - 1) block
+            )
+            INSERT INTO transaction (id, account_id, transaction_type, amount, transaction_date, description_code)
+            SELECT b.hi - 49 + c.n % 50, c.id, 4, c.interest, :now, 4
+            FROM numbered c
+            JOIN blocks b ON b.block = c.n / 50""", nativeQuery = true)
+    int accrueInterest(@Param("period") LocalDate period, @Param("fromId") long fromId, @Param("toId") long toId,
+                       @Param("now") LocalDateTime now);
+
+    long countByLastInterestDate(LocalDate lastInterestDate);
+
+    /**
+     * Streams every account in id order, fetching rows from the database in blocks instead of all
+     * at once. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM Account a ORDER BY a.id")
+    Stream<Account> streamAll();
+}
@@ -0,0 +1,28 @@
+package com.voltcore.bank.repositories;
+
+import com.voltcore.bank.entities.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for IdempotencyRecord entity operations.
+ */
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Stores the response of the request that claimed the record.
+     */
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.responseBody = :responseBody WHERE r.id = :id")
+    int saveResponse(@Param("id") Long id, @Param("responseBody") String responseBody);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :cutoff")
+    int deleteExpired(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,25 @@
+package com.voltcore.bank.repositories;
+
+import com.voltcore.bank.entities.InterestRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Repository interface for InterestRun entity operations.
+ */
+public interface InterestRunRepository extends JpaRepository<InterestRun, Long> {
+    Optional<InterestRun> findFirstByStatusOrderByIdAsc(String status);
+
+    boolean existsByPeriodAndStatus(LocalDate period, String status);
+
+    /**
+     * Takes the PostgreSQL advisory lock {@code key} until the current transaction ends, so that
+     * instances sharing the database claim runs one at a time.
+     */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(:key)) claim", nativeQuery = true)
+    int lockForClaim(@Param("key") long key);
+}
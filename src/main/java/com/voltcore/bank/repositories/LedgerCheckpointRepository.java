@@ -0,0 +1,10 @@
+package com.voltcore.bank.repositories;
+
+import com.voltcore.bank.entities.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for LedgerCheckpoint entity operations.
+ */
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, String> {
+}
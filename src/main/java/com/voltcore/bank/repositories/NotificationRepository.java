@@ -0,0 +1,28 @@
+package com.voltcore.bank.repositories;
+
+import com.voltcore.bank.entities.Notification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for Notification outbox operations.
+ */
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    /**
+     * Locks up to {@code limit} notifications that are due for delivery: pending ones and those
+     * whose SENDING lease has run out. Rows being claimed by another dispatcher are skipped rather
+     * than waited on.
+     */
+    @Query(value = """
+            SELECT * FROM notification_outbox
+            WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= :now
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED""", nativeQuery = true)
+    List<Notification> claimDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -1,16 +1,106 @@
 package com.voltcore.bank.repositories;
 
 import com.voltcore.bank.entities.Transaction;
+import com.voltcore.bank.entities.TransactionType;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for Transaction entity operations.
  */
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    List<Transaction> findByAccountId(Long accountId);
-    List<Transaction> findByTransactionType(String transactionType);
-    List<Transaction> findByTransactionDateBetween(LocalDateTime startDate, LocalDateTime endDate);
-}
\ No newline at end of file
+    List<Transaction> findByTransactionType(TransactionType transactionType);
+
+    /**
+     * Loads and row-locks a transaction, so that concurrent edits and reversals of it run one
+     * after the other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Transaction t WHERE t.id = :id")
+    Optional<Transaction> findForUpdateById(@Param("id") Long id);
+
+    /**
+     * Returns the transactions dated in {@code [from, to)} with their accounts, ordered by date.
+     */
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.account LEFT JOIN FETCH t.counterpartyAccount WHERE t.transactionDate >= :from AND t.transactionDate < :to ORDER BY t.transactionDate, t.id")
+    List<Transaction> findInPeriod(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Returns the transactions dated in {@code [from, to]} with their accounts, ordered by date.
+     */
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.account LEFT JOIN FETCH t.counterpartyAccount WHERE t.transactionDate BETWEEN :from AND :to ORDER BY t.transactionDate, t.id")
+    List<Transaction> findBetweenOrdered(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    boolean existsByAccountIdOrCounterpartyAccountId(Long accountId, Long counterpartyAccountId);
+
+    /**
+     * Returns every transaction of an account, including transfers it received, oldest first.
+     * Reads the (account_id, ...) and (counterparty_account_id, ...) indexes.
+     */
+    @Query("""
+            SELECT t FROM Transaction t JOIN FETCH t.account LEFT JOIN FETCH t.counterpartyAccount
+            WHERE t.account.id = :accountId OR t.counterpartyAccount.id = :accountId
+            ORDER BY t.transactionDate, t.id""")
+    List<Transaction> findHistoryByAccountId(@Param("accountId") Long accountId);
+
+    /**
+     * Returns the newest transactions of an account, including transfers it received, newest
+     * first. Each branch walks its own index backwards and stops after {@code limit} rows, so only
+     * the two short runs are merged.
+     */
+    @Query(value = """
+            SELECT * FROM (
+                (SELECT * FROM transaction WHERE account_id = :accountId
+                 ORDER BY transaction_date DESC, id DESC LIMIT :limit)
+                UNION ALL
+                (SELECT * FROM transaction WHERE counterparty_account_id = :accountId AND account_id <> :accountId
+                 ORDER BY transaction_date DESC, id DESC LIMIT :limit)
+            ) history
+            ORDER BY transaction_date DESC, id DESC LIMIT :limit""", nativeQuery = true)
+    List<Transaction> findLatestHistoryByAccountId(@Param("accountId") Long accountId, @Param("limit") int limit);
+
+    /**
+     * Returns the transactions of an account, including transfers it received, that sort before
+     * ({@code transactionDate}, {@code id}), newest first. Together with
+     * {@link #findLatestHistoryByAccountId} this pages through the history by keyset on the
+     * (account_id, transaction_date, id) and (counterparty_account_id, transaction_date, id)
+     * indexes.
+     */
+    @Query(value = """
+            SELECT * FROM (
+                (SELECT * FROM transaction WHERE account_id = :accountId
+                   AND (transaction_date, id) < (:transactionDate, :id)
+                 ORDER BY transaction_date DESC, id DESC LIMIT :limit)
+                UNION ALL
+                (SELECT * FROM transaction WHERE counterparty_account_id = :accountId AND account_id <> :accountId
+                   AND (transaction_date, id) < (:transactionDate, :id)
+                 ORDER BY transaction_date DESC, id DESC LIMIT :limit)
+            ) history
+            ORDER BY transaction_date DESC, id DESC LIMIT :limit""", nativeQuery = true)
+    List<Transaction> findHistoryByAccountIdBefore(@Param("accountId") Long accountId,
+                                                   @Param("transactionDate") LocalDateTime transactionDate,
+                                                   @Param("id") Long id,
+                                                   @Param("limit") int limit);
+
+    /**
+     * Streams every transaction with its account in id order, fetching rows from the database in
+     * blocks instead of all at once. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.account LEFT JOIN FETCH t.counterpartyAccount ORDER BY t.id")
+    Stream<Transaction> streamAll();
+}
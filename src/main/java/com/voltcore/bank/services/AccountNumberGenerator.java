@@ -0,0 +1,137 @@
+package com.voltcore.bank.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered account numbers.
+ * <p>
+ * Each number is a Snowflake-style 64-bit id (41 bits of milliseconds since 2024-01-01, a 10-bit
+ * node id and a 12-bit sequence) written as 13 Crockford base32 characters followed by a mod 32
+ * check character, e.g. {@code 0A8SRABSG0MGSP}. Numbers are fixed width, so they sort in issue
+ * order both as strings and in a {@code COLLATE "C"} index, and new accounts land on the right
+ * edge of the account number index. Ids stay strictly increasing on a node when the clock steps
+ * back or more than 4096 accounts open in one millisecond: the generator then borrows from the
+ * next millisecond instead of waiting. Each instance must run with its own node id.
+ */
+@Component
+public class AccountNumberGenerator {
+    static final int LENGTH = 14;
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final int[] VALUES = new int[128];
+
+    static {
+        Arrays.fill(VALUES, -1);
+        for (int i = 0; i < ALPHABET.length(); i++) {
+            VALUES[ALPHABET.charAt(i)] = i;
+        }
+    }
+
+    private final long nodeId;
+    private final AtomicLong lastTick = new AtomicLong(); // (millis since epoch << SEQUENCE_BITS) | sequence
+
+    public AccountNumberGenerator(@Value("${voltcore.account-number.node-id:0}") int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Account number node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Returns a new account number, greater than any number previously issued by this node.
+     */
+    public String next() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long tick = lastTick.updateAndGet(last -> Math.max(last + 1, now));
+        long millis = tick >>> SEQUENCE_BITS;
+        long sequence = tick & ((1L << SEQUENCE_BITS) - 1);
+        return format((millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence);
+    }
+
+    /**
+     * Whether {@code accountNumber} has the generated format and a matching check character.
+     * Accounts opened before this format have UUID numbers, which this rejects.
+     */
+    public static boolean isValid(String accountNumber) {
+        if (accountNumber == null || accountNumber.length() != LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            char c = accountNumber.charAt(i);
+            if (c >= VALUES.length || VALUES[c] < 0) {
+                return false;
+            }
+        }
+        // The leading character carries only the top four bits of the 64-bit id.
+        return VALUES[accountNumber.charAt(0)] < 16
+                && VALUES[accountNumber.charAt(LENGTH - 1)] == checkValue(accountNumber, LENGTH - 1);
+    }
+
+    /**
+     * Whether {@code accountNumber} is a generated number or a legacy UUID number.
+     */
+    public static boolean isWellFormed(String accountNumber) {
+        return isValid(accountNumber) || isLegacy(accountNumber);
+    }
+
+    /**
+     * Returns {@code accountNumber} if it is {@linkplain #isWellFormed well formed}, so that
+     * malformed numbers are refused with 400 Bad Request before they reach the database.
+     */
+    public static String requireWellFormed(String accountNumber) {
+        if (!isWellFormed(accountNumber)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid account number");
+        }
+        return accountNumber;
+    }
+
+    private static boolean isLegacy(String accountNumber) {
+        if (accountNumber == null || accountNumber.length() != 36) {
+            return false;
+        }
+        try {
+            UUID.fromString(accountNumber);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    static String format(long id) {
+        char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 2; i >= 0; i--) {
+            chars[i] = ALPHABET.charAt((int) (id & 31));
+            id >>>= 5;
+        }
+        String body = new String(chars, 0, LENGTH - 1);
+        chars[LENGTH - 1] = ALPHABET.charAt(checkValue(body, LENGTH - 1));
+        return new String(chars);
+    }
+
+    /**
+     * Luhn mod N check value over the first {@code length} characters, which catches every
+     * single-character typo and most swaps of adjacent characters.
+     */
+    private static int checkValue(String value, int length) {
+        int factor = 2;
+        int sum = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            int addend = factor * VALUES[value.charAt(i)];
+            factor = factor == 2 ? 1 : 2;
+            sum += addend / 32 + addend % 32;
+        }
+        return (32 - sum % 32) % 32;
+    }
+}
@@ -1,20 +1,49 @@
 package com.voltcore.bank.services;
 
 import com.voltcore.bank.dtos.AccountDTO;
+import com.voltcore.bank.dtos.BatchTransferResponseDTO;
+import com.voltcore.bank.dtos.BatchTransferResultDTO;
 import com.voltcore.bank.dtos.TransactionDTO;
+import com.voltcore.bank.dtos.TransactionPageDTO;
+import com.voltcore.bank.dtos.TransferRequestDTO;
 import com.voltcore.bank.entities.Account;
+import com.voltcore.bank.entities.AccountBalanceSlot;
+import com.voltcore.bank.entities.AccountStatus;
+import com.voltcore.bank.entities.AccountType;
+import com.voltcore.bank.entities.DescriptionCode;
+import com.voltcore.bank.entities.Money;
+import com.voltcore.bank.entities.PaymentMethod;
 import com.voltcore.bank.entities.Transaction;
+import com.voltcore.bank.entities.TransactionType;
+import com.voltcore.bank.ledger.LedgerAccount;
+import com.voltcore.bank.ledger.LedgerCommand;
+import com.voltcore.bank.ledger.LedgerEngine;
 import com.voltcore.bank.mappers.AccountMapper;
 import com.voltcore.bank.mappers.TransactionMapper;
+import com.voltcore.bank.repositories.AccountBalanceSlotRepository;
 import com.voltcore.bank.repositories.AccountRepository;
 import com.voltcore.bank.repositories.TransactionRepository;
 import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -22,211 +51,338 @@ import java.util.stream.Collectors;
  */
 @Service
 public class AccountService {
+    private static final Logger log = LoggerFactory.getLogger(AccountService.class);
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+
     private final AccountRepository accountRepository;
+    private final AccountBalanceSlotRepository accountBalanceSlotRepository;
     private final TransactionRepository transactionRepository;
     private final AccountMapper accountMapper;
     private final TransactionMapper transactionMapper;
     private final EmailService emailService;
+    private final AccountNumberGenerator accountNumberGenerator;
+    private final TransactionRangeCache transactionRangeCache;
+    private final LedgerEngine ledgerEngine; // null unless voltcore.ledger.enabled
+    private final int maxBatchTransferSize;
+    private final int maxBalanceSlots;
+    private final int maxHistoryPageSize;
 
     public AccountService(AccountRepository accountRepository,
+                          AccountBalanceSlotRepository accountBalanceSlotRepository,
                           TransactionRepository transactionRepository,
                           AccountMapper accountMapper,
                           TransactionMapper transactionMapper,
-                          EmailService emailService) {
+                          EmailService emailService,
+                          AccountNumberGenerator accountNumberGenerator,
+                          TransactionRangeCache transactionRangeCache,
+                          ObjectProvider<LedgerEngine> ledgerEngine,
+                          @Value("${voltcore.accounts.batch-transfer.max-size:10000}") int maxBatchTransferSize,
+                          @Value("${voltcore.accounts.max-balance-slots:64}") int maxBalanceSlots,
+                          @Value("${voltcore.transactions.history.max-page-size:500}") int maxHistoryPageSize) {
         this.accountRepository = accountRepository;
+        this.accountBalanceSlotRepository = accountBalanceSlotRepository;
         this.transactionRepository = transactionRepository;
         this.accountMapper = accountMapper;
         this.transactionMapper = transactionMapper;
         this.emailService = emailService;
+        this.accountNumberGenerator = accountNumberGenerator;
+        this.transactionRangeCache = transactionRangeCache;
+        this.ledgerEngine = ledgerEngine.getIfAvailable();
+        this.maxBatchTransferSize = maxBatchTransferSize;
+        this.maxBalanceSlots = maxBalanceSlots;
+        this.maxHistoryPageSize = maxHistoryPageSize;
     }
 
     public List<AccountDTO> getAllAccounts() {
         return accountRepository.findAll().stream()
-                .map(accountMapper::toDTO)
+                .map(this::toAccountDTO)
                 .collect(Collectors.toList());
     }
 
     @Transactional
     public AccountDTO createAccount(AccountDTO accountDTO) {
+        AccountType.parse(accountDTO.getAccountType());
         Account account = accountMapper.toEntity(accountDTO);
-        account.setAccountNumber(UUID.randomUUID().toString());
-        account.setBalance(BigDecimal.ZERO);
-        account.setStatus("ACTIVE");
+        account.setAccountNumber(accountNumberGenerator.next());
+        account.setBalance(Money.ZERO);
+        account.setStatus(AccountStatus.ACTIVE);
         Account savedAccount = accountRepository.save(account);
-        return accountMapper.toDTO(savedAccount);
+        if (ledgerEngine != null) {
+            afterCommit(savedAccount.getAccountNumber(), () -> ledgerEngine.open(savedAccount.getId(), savedAccount.getAccountNumber()));
+        }
+        return toAccountDTO(savedAccount);
     }
 
     @Transactional
+    @RetryOnConflict
     public AccountDTO updateAccount(String accountNumber, AccountDTO accountDTO) {
         Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
+                .orElseThrow(() -> BankingException.notFound("Account not found"));
         account.setAccountHolderName(accountDTO.getAccountHolderName());
         account.setEmail(accountDTO.getEmail());
         account.setInterestRate(accountDTO.getInterestRate() != null ? accountDTO.getInterestRate() : BigDecimal.ZERO);
         Account savedAccount = accountRepository.save(account);
-        return accountMapper.toDTO(savedAccount);
+        return toAccountDTO(savedAccount);
     }
 
     @Transactional
     public void deleteAccount(String accountNumber) {
         Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        if (!"CLOSED".equals(account.getStatus())) {
+                .orElseThrow(() -> BankingException.notFound("Account not found"));
+        if (account.getStatus() != AccountStatus.CLOSED) {
             throw new IllegalArgumentException("Account must be closed before deletion");
         }
-        List<Transaction> transactions = transactionRepository.findByAccountId(account.getId());
-        if (!transactions.isEmpty()) {
+        if (transactionRepository.existsByAccountIdOrCounterpartyAccountId(account.getId(), account.getId())) {
             throw new IllegalArgumentException("Cannot delete account with existing transactions");
         }
         accountRepository.delete(account);
+        if (ledgerEngine != null) {
+            afterCommit(accountNumber, () -> ledgerEngine.remove(accountNumber));
+        }
     }
 
     @Transactional
     public TransactionDTO deposit(String accountNumber, BigDecimal amount, String paymentMethod) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Deposit amount must be positive");
+        Money money = positiveAmount(amount, "Deposit amount must be positive");
+        PaymentMethod method = PaymentMethod.parse(paymentMethod);
+        if (ledgerEngine != null) {
+            return toTransactionDTO(ledgerEngine.deposit(accountNumber, money, method));
         }
-        if (!isValidPaymentMethod(paymentMethod)) {
-            throw new IllegalArgumentException("Invalid payment method");
-        }
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        if (!"ACTIVE".equals(account.getStatus())) {
-            throw new IllegalArgumentException("Account is not active");
-        }
-        account.setBalance(account.getBalance().add(amount));
-        accountRepository.save(account);
+        Account account = credit(accountNumber, money, "Account not found", "Account is not active");
 
         Transaction transaction = new Transaction();
         transaction.setAccount(account);
-        transaction.setTransactionType("DEPOSIT");
-        transaction.setAmount(amount);
+        transaction.setTransactionType(TransactionType.DEPOSIT);
+        transaction.setAmount(money);
         transaction.setTransactionDate(LocalDateTime.now());
-        transaction.setDescription("Deposit to account " + accountNumber);
-        transaction.setPaymentMethod(paymentMethod);
+        transaction.setDescriptionCode(DescriptionCode.DEPOSIT);
+        transaction.setPaymentMethod(method);
         Transaction savedTransaction = transactionRepository.save(transaction);
 
-        emailService.sendTransactionEmail(savedTransaction);
+        emailService.queueTransactionEmail(savedTransaction);
         return transactionMapper.toDTO(savedTransaction);
     }
 
     @Transactional
     public TransactionDTO withdraw(String accountNumber, BigDecimal amount, String paymentMethod) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Withdrawal amount must be positive");
-        }
-        if (!isValidPaymentMethod(paymentMethod)) {
-            throw new IllegalArgumentException("Invalid payment method");
+        Money money = positiveAmount(amount, "Withdrawal amount must be positive");
+        PaymentMethod method = PaymentMethod.parse(paymentMethod);
+        if (ledgerEngine != null) {
+            return toTransactionDTO(ledgerEngine.withdraw(accountNumber, money, method));
         }
-        Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        if (!"ACTIVE".equals(account.getStatus())) {
-            throw new IllegalArgumentException("Account is not active");
-        }
-        if (account.getBalance().compareTo(amount) < 0) {
-            throw new IllegalArgumentException("Insufficient funds");
-        }
-        account.setBalance(account.getBalance().subtract(amount));
-        accountRepository.save(account);
+        Account account = debit(accountNumber, money, "Account not found", "Account is not active", "Insufficient funds");
 
         Transaction transaction = new Transaction();
         transaction.setAccount(account);
-        transaction.setTransactionType("WITHDRAWAL");
-        transaction.setAmount(amount);
+        transaction.setTransactionType(TransactionType.WITHDRAWAL);
+        transaction.setAmount(money);
         transaction.setTransactionDate(LocalDateTime.now());
-        transaction.setDescription("Withdrawal from account " + accountNumber);
-        transaction.setPaymentMethod(paymentMethod);
+        transaction.setDescriptionCode(DescriptionCode.WITHDRAWAL);
+        transaction.setPaymentMethod(method);
         Transaction savedTransaction = transactionRepository.save(transaction);
 
-        emailService.sendTransactionEmail(savedTransaction);
+        emailService.queueTransactionEmail(savedTransaction);
         return transactionMapper.toDTO(savedTransaction);
     }
 
     @Transactional
     public TransactionDTO transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount, String paymentMethod) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Transfer amount must be positive");
-        }
-        if (!isValidPaymentMethod(paymentMethod)) {
-            throw new IllegalArgumentException("Invalid payment method");
+        Money money = positiveAmount(amount, "Transfer amount must be positive");
+        PaymentMethod method = PaymentMethod.parse(paymentMethod);
+        if (ledgerEngine != null) {
+            return toTransactionDTO(ledgerEngine.transfer(fromAccountNumber, toAccountNumber, money, method));
         }
-        Account fromAccount = accountRepository.findByAccountNumber(fromAccountNumber)
-                .orElseThrow(() -> new IllegalArgumentException("Source account not found"));
-        Account toAccount = accountRepository.findByAccountNumber(toAccountNumber)
-                .orElseThrow(() -> new IllegalArgumentException("Destination account not found"));
-        if (!"ACTIVE".equals(fromAccount.getStatus()) || !"ACTIVE".equals(toAccount.getStatus())) {
-            throw new IllegalArgumentException("One or both accounts are not active");
-        }
-        if (fromAccount.getBalance().compareTo(amount) < 0) {
-            throw new IllegalArgumentException("Insufficient funds");
-        }
-
-        fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
-        toAccount.setBalance(toAccount.getBalance().add(amount));
-        accountRepository.saveAll(List.of(fromAccount, toAccount));
-
         Transaction transaction = new Transaction();
-        transaction.setAccount(fromAccount);
-        transaction.setTransactionType("TRANSFER");
-        transaction.setAmount(amount);
+        moveFunds(transaction, fromAccountNumber, toAccountNumber, money,
+                "Source account not found", "Destination account not found",
+                "One or both accounts are not active", "One or both accounts are not active");
+        transaction.setTransactionType(TransactionType.TRANSFER);
+        transaction.setAmount(money);
         transaction.setTransactionDate(LocalDateTime.now());
-        transaction.setDescription("Transfer from " + fromAccountNumber + " to " + toAccountNumber);
-        transaction.setPaymentMethod(paymentMethod);
+        transaction.setDescriptionCode(DescriptionCode.TRANSFER);
+        transaction.setPaymentMethod(method);
         Transaction savedTransaction = transactionRepository.save(transaction);
 
-        emailService.sendTransactionEmail(savedTransaction);
+        emailService.queueTransactionEmail(savedTransaction);
         return transactionMapper.toDTO(savedTransaction);
     }
 
+    /**
+     * Executes many transfers in one transaction. All referenced accounts are loaded and locked
+     * with a single query, balances are moved in memory in request order, and the transaction
+     * rows and account updates are flushed together. When a source account's row alone cannot
+     * cover a transfer, its balance slots are emptied onto the locked row first. A transfer that
+     * fails validation is reported as rejected without affecting the others.
+     */
     @Transactional
-    public AccountDTO closeAccount(String accountNumber) {
+    public BatchTransferResponseDTO transferBatch(List<TransferRequestDTO> transfers) {
+        requireDatabaseLedger();
+        if (transfers == null || transfers.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one transfer");
+        }
+        if (transfers.size() > maxBatchTransferSize) {
+            throw new IllegalArgumentException("Batch exceeds the maximum of " + maxBatchTransferSize + " transfers");
+        }
+
+        Set<String> accountNumbers = new HashSet<>();
+        for (TransferRequestDTO transfer : transfers) {
+            if (AccountNumberGenerator.isWellFormed(transfer.getFromAccountNumber())) {
+                accountNumbers.add(transfer.getFromAccountNumber());
+            }
+            if (AccountNumberGenerator.isWellFormed(transfer.getToAccountNumber())) {
+                accountNumbers.add(transfer.getToAccountNumber());
+            }
+        }
+        Map<String, Account> accounts = accountRepository.findAllForUpdateByAccountNumberIn(accountNumbers).stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        Transaction[] applied = new Transaction[transfers.size()];
+        String[] errors = new String[transfers.size()];
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferRequestDTO transfer = transfers.get(i);
+            BatchTransferCheck check = validateBatchTransfer(transfer, accounts);
+            if (check.error() != null) {
+                errors[i] = check.error();
+                continue;
+            }
+            Money amount = check.amount();
+            Account fromAccount = accounts.get(transfer.getFromAccountNumber());
+            Account toAccount = accounts.get(transfer.getToAccountNumber());
+            fromAccount.setBalance(fromAccount.getBalance().minus(amount));
+            toAccount.setBalance(toAccount.getBalance().plus(amount));
+
+            Transaction transaction = new Transaction();
+            transaction.setAccount(fromAccount);
+            transaction.setCounterpartyAccount(toAccount);
+            transaction.setTransactionType(TransactionType.TRANSFER);
+            transaction.setAmount(amount);
+            transaction.setTransactionDate(now);
+            transaction.setDescriptionCode(DescriptionCode.TRANSFER);
+            transaction.setPaymentMethod(check.paymentMethod());
+            transactions.add(transaction);
+            applied[i] = transaction;
+        }
+        transactionRepository.saveAll(transactions);
+
+        List<BatchTransferResultDTO> results = new ArrayList<>(transfers.size());
+        for (int i = 0; i < transfers.size(); i++) {
+            BatchTransferResultDTO result = new BatchTransferResultDTO();
+            result.setIndex(i);
+            if (applied[i] != null) {
+                result.setStatus("COMPLETED");
+                result.setTransaction(transactionMapper.toDTO(applied[i]));
+            } else {
+                result.setStatus("REJECTED");
+                result.setError(errors[i]);
+            }
+            results.add(result);
+        }
+        for (Transaction transaction : transactions) {
+            emailService.queueTransactionEmail(transaction);
+        }
+
+        BatchTransferResponseDTO response = new BatchTransferResponseDTO();
+        response.setCompleted(transactions.size());
+        response.setRejected(transfers.size() - transactions.size());
+        response.setResults(results);
+        return response;
+    }
+
+    /**
+     * Spreads future credits to a hot account over {@code slots} sub-balances so that deposits do
+     * not all serialize on the account row. Slots are never removed once created: lowering the
+     * count only narrows where new credits land, and the balances of every slot still count
+     * towards the account total.
+     */
+    @Transactional
+    public AccountDTO configureBalanceSlots(String accountNumber, int slots) {
+        requireDatabaseLedger();
+        if (slots < 1 || slots > maxBalanceSlots) {
+            throw new IllegalArgumentException("Balance slots must be between 1 and " + maxBalanceSlots);
+        }
         Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        if (!"ACTIVE".equals(account.getStatus())) {
-            throw new IllegalArgumentException("Account is already closed");
+                .orElseThrow(() -> BankingException.notFound("Account not found"));
+        if (account.getStatus() != AccountStatus.ACTIVE) {
+            throw BankingException.inactiveAccount("Account is not active");
         }
-        if (account.getBalance().compareTo(BigDecimal.ZERO) != 0) {
+
+        List<AccountBalanceSlot> newSlots = new ArrayList<>();
+        for (int slot = (int) accountBalanceSlotRepository.countByAccountId(account.getId()); slot < slots; slot++) {
+            AccountBalanceSlot balanceSlot = new AccountBalanceSlot();
+            balanceSlot.setAccount(account);
+            balanceSlot.setSlot(slot);
+            newSlots.add(balanceSlot);
+        }
+        accountBalanceSlotRepository.saveAll(newSlots);
+        accountRepository.updateBalanceSlots(account.getId(), slots);
+
+        return toAccountDTO(accountRepository.findByAccountNumber(accountNumber)
+                .orElseThrow(() -> BankingException.notFound("Account not found")));
+    }
+
+    @Transactional
+    @RetryOnConflict
+    public AccountDTO closeAccount(String accountNumber) {
+        if (ledgerEngine != null) {
+            // The ledger checks the balance and accepts repeated closes; the projector writes the status
+            Account account = accountRepository.findByAccountNumber(accountNumber)
+                    .orElseThrow(() -> BankingException.notFound("Account not found"));
+            ledgerEngine.close(accountNumber);
+            AccountDTO accountDTO = toAccountDTO(account);
+            accountDTO.setStatus(AccountStatus.CLOSED.name());
+            return accountDTO;
+        }
+        // The row lock keeps slot credits, which take a share lock on it, out until the status is updated
+        Account account = accountRepository.findForUpdateByAccountNumber(accountNumber)
+                .orElseThrow(() -> BankingException.notFound("Account not found"));
+        if (account.getStatus() != AccountStatus.ACTIVE) {
+            throw BankingException.inactiveAccount("Account is already closed");
+        }
+        if (totalBalance(account).signum() != 0) {
             throw new IllegalArgumentException("Account balance must be zero to close");
         }
-        account.setStatus("CLOSED");
+        account.setStatus(AccountStatus.CLOSED);
         Account savedAccount = accountRepository.save(account);
-        return accountMapper.toDTO(savedAccount);
+        return toAccountDTO(savedAccount);
     }
 
     @Transactional
+    @RetryOnConflict
     public TransactionDTO applyInterest(String accountNumber) {
+        requireDatabaseLedger();
         Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        if (!"ACTIVE".equals(account.getStatus())) {
-            throw new IllegalArgumentException("Account is not active");
+                .orElseThrow(() -> BankingException.notFound("Account not found"));
+        if (account.getStatus() != AccountStatus.ACTIVE) {
+            throw BankingException.inactiveAccount("Account is not active");
         }
         if (account.getInterestRate() == null || account.getInterestRate().compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("No interest rate set for this account");
         }
 
-        BigDecimal interest = account.getBalance()
-                .multiply(account.getInterestRate())
-                .divide(BigDecimal.valueOf(100), 2, BigDecimal.ROUND_HALF_UP);
-        account.setBalance(account.getBalance().add(interest));
+        Money interest = calculateInterest(totalBalance(account), account.getInterestRate());
+        account.setBalance(account.getBalance().plus(interest));
         accountRepository.save(account);
 
         Transaction transaction = new Transaction();
         transaction.setAccount(account);
-        transaction.setTransactionType("INTEREST");
+        transaction.setTransactionType(TransactionType.INTEREST);
         transaction.setAmount(interest);
         transaction.setTransactionDate(LocalDateTime.now());
-        transaction.setDescription("Interest applied to account " + accountNumber);
+        transaction.setDescriptionCode(DescriptionCode.INTEREST);
         Transaction savedTransaction = transactionRepository.save(transaction);
 
-        emailService.sendTransactionEmail(savedTransaction);
+        emailService.queueTransactionEmail(savedTransaction);
         return transactionMapper.toDTO(savedTransaction);
     }
 
     @Transactional
     public TransactionDTO reverseTransaction(Long transactionId) {
-        Transaction transaction = transactionRepository.findById(transactionId)
-                .orElseThrow(() -> new IllegalArgumentException("Transaction not found"));
-        if ("REVERSAL".equals(transaction.getTransactionType())) {
+        requireDatabaseLedger();
+        Transaction transaction = transactionRepository.findForUpdateById(transactionId)
+                .orElseThrow(() -> BankingException.notFound("Transaction not found"));
+        if (transaction.getTransactionType() == TransactionType.REVERSAL) {
             throw new IllegalArgumentException("Cannot reverse a reversal transaction");
         }
         if (transaction.getRelatedTransactionId() != null) {
@@ -234,75 +390,107 @@ public class AccountService {
         }
 
         Account account = transaction.getAccount();
-        if (!"ACTIVE".equals(account.getStatus())) {
-            throw new IllegalArgumentException("Account is not active");
+        if (account.getStatus() != AccountStatus.ACTIVE) {
+            throw BankingException.inactiveAccount("Account is not active");
         }
 
-        BigDecimal amount = transaction.getAmount();
-        String transactionType = transaction.getTransactionType();
+        Money amount = transaction.getAmount();
         Transaction reversal = new Transaction();
         reversal.setAccount(account);
-        reversal.setTransactionType("REVERSAL");
+        reversal.setTransactionType(TransactionType.REVERSAL);
         reversal.setAmount(amount);
         reversal.setTransactionDate(LocalDateTime.now());
         reversal.setRelatedTransactionId(transactionId);
         reversal.setPaymentMethod(transaction.getPaymentMethod());
 
-        if ("DEPOSIT".equals(transactionType)) {
-            if (account.getBalance().compareTo(amount) < 0) {
-                throw new IllegalArgumentException("Insufficient funds for reversal");
+        switch (transaction.getTransactionType()) {
+            case DEPOSIT -> {
+                debit(account.getAccountNumber(), amount, "Account not found", "Account is not active", "Insufficient funds for reversal");
+                reversal.setDescriptionCode(DescriptionCode.DEPOSIT_REVERSAL);
             }
-            account.setBalance(account.getBalance().subtract(amount));
-            reversal.setDescription("Reversal of deposit to account " + account.getAccountNumber());
-        } else if ("WITHDRAWAL".equals(transactionType)) {
-            account.setBalance(account.getBalance().add(amount));
-            reversal.setDescription("Reversal of withdrawal from account " + account.getAccountNumber());
-        } else if ("TRANSFER".equals(transactionType)) {
-            throw new IllegalArgumentException("Transfer reversals require manual handling");
-        } else {
-            throw new IllegalArgumentException("Unsupported transaction type for reversal");
+            case WITHDRAWAL -> {
+                credit(account.getAccountNumber(), amount, "Account not found", "Account is not active");
+                reversal.setDescriptionCode(DescriptionCode.WITHDRAWAL_REVERSAL);
+            }
+            case TRANSFER -> throw new IllegalArgumentException("Transfer reversals require manual handling");
+            default -> throw new IllegalArgumentException("Unsupported transaction type for reversal");
         }
 
-        accountRepository.save(account);
         Transaction savedReversal = transactionRepository.save(reversal);
-        emailService.sendTransactionEmail(savedReversal);
+        emailService.queueTransactionEmail(savedReversal);
         return transactionMapper.toDTO(savedReversal);
     }
 
     public TransactionDTO getTransaction(Long transactionId) {
         Transaction transaction = transactionRepository.findById(transactionId)
-                .orElseThrow(() -> new IllegalArgumentException("Transaction not found"));
+                .orElseThrow(() -> BankingException.notFound("Transaction not found"));
         return transactionMapper.toDTO(transaction);
     }
 
     @Transactional
     public void deleteTransaction(Long transactionId) {
         Transaction transaction = transactionRepository.findById(transactionId)
-                .orElseThrow(() -> new IllegalArgumentException("Transaction not found"));
-        if (!List.of("REVERSAL", "INTEREST").contains(transaction.getTransactionType())) {
+                .orElseThrow(() -> BankingException.notFound("Transaction not found"));
+        TransactionType type = transaction.getTransactionType();
+        if (type != TransactionType.REVERSAL && type != TransactionType.INTEREST) {
             throw new IllegalArgumentException("Only reversal or interest transactions can be deleted");
         }
         transactionRepository.delete(transaction);
+        transactionRangeCache.invalidate(transaction.getTransactionDate());
     }
 
     public AccountDTO getAccount(String accountNumber) {
         Account account = accountRepository.findByAccountNumber(accountNumber)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        return accountMapper.toDTO(account);
+                .orElseThrow(() -> BankingException.notFound("Account not found"));
+        return toAccountDTO(account);
     }
 
     public List<AccountDTO> getAccountsByStatus(String status) {
-        return accountRepository.findByStatus(status).stream()
-                .map(accountMapper::toDTO)
+        return accountRepository.findByStatus(AccountStatus.parse(status)).stream()
+                .map(this::toAccountDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns every transaction of an account, including transfers it received, oldest first.
+     */
     public List<TransactionDTO> getTransactionHistory(Long accountId) {
-        return transactionRepository.findByAccountId(accountId).stream()
+        return transactionRepository.findHistoryByAccountId(accountId).stream()
                 .map(transactionMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns up to {@code limit} transactions of an account, including transfers it received,
+     * newest first, starting after the position encoded in {@code cursor} (or at the newest
+     * transaction when it is null).
+     */
+    public TransactionPageDTO getTransactionHistoryPage(Long accountId, String cursor, int limit) {
+        if (limit < 1 || limit > maxHistoryPageSize) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxHistoryPageSize);
+        }
+        List<Transaction> transactions;
+        if (cursor == null || cursor.isBlank()) {
+            transactions = transactionRepository.findLatestHistoryByAccountId(accountId, limit + 1);
+        } else {
+            HistoryCursor position = HistoryCursor.decode(cursor);
+            transactions = transactionRepository.findHistoryByAccountIdBefore(accountId, position.transactionDate(), position.id(),
+                    limit + 1);
+        }
+
+        TransactionPageDTO page = new TransactionPageDTO();
+        boolean hasMore = transactions.size() > limit;
+        List<Transaction> pageTransactions = hasMore ? transactions.subList(0, limit) : transactions;
+        page.setTransactions(pageTransactions.stream()
+                .map(transactionMapper::toDTO)
+                .collect(Collectors.toList()));
+        if (hasMore) {
+            Transaction last = pageTransactions.get(limit - 1);
+            page.setNextCursor(new HistoryCursor(last.getTransactionDate(), last.getId()).encode());
+        }
+        return page;
+    }
+
     public List<TransactionDTO> getAllTransactions() {
         return transactionRepository.findAll().stream()
                 .map(transactionMapper::toDTO)
@@ -311,63 +499,57 @@ public class AccountService {
 
     @Transactional
     public TransactionDTO createTransaction(TransactionDTO transactionDTO) {
-        if (transactionDTO.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Transaction amount must be positive");
-        }
-        if (!isValidPaymentMethod(transactionDTO.getPaymentMethod())) {
-            throw new IllegalArgumentException("Invalid payment method");
-        }
-        if (!List.of("DEPOSIT", "WITHDRAWAL", "TRANSFER").contains(transactionDTO.getTransactionType())) {
+        Money amount = positiveAmount(transactionDTO.getAmount(), "Transaction amount must be positive");
+        PaymentMethod method = PaymentMethod.parse(transactionDTO.getPaymentMethod());
+        TransactionType type = TransactionType.parse(transactionDTO.getTransactionType());
+        if (type != TransactionType.DEPOSIT && type != TransactionType.WITHDRAWAL && type != TransactionType.TRANSFER) {
             throw new IllegalArgumentException("Invalid transaction type");
         }
 
-        Account account = accountRepository.findByAccountNumber(transactionDTO.getAccountNumber())
-                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-        if (!"ACTIVE".equals(account.getStatus())) {
-            throw new IllegalArgumentException("Account is not active");
+        if (type == TransactionType.TRANSFER && transactionDTO.getToAccountNumber() == null) {
+            throw new IllegalArgumentException("Destination account number required for transfer");
+        }
+        String description = clientDescription(transactionDTO.getDescription());
+        if (ledgerEngine != null) {
+            LedgerCommand command = switch (type) {
+                case DEPOSIT -> ledgerEngine.deposit(transactionDTO.getAccountNumber(), amount, method);
+                case WITHDRAWAL -> ledgerEngine.withdraw(transactionDTO.getAccountNumber(), amount, method);
+                default -> ledgerEngine.transfer(transactionDTO.getAccountNumber(), transactionDTO.getToAccountNumber(),
+                        amount, method);
+            };
+            return toTransactionDTO(command);
         }
 
         Transaction transaction = transactionMapper.toEntity(transactionDTO);
         transaction.setTransactionDate(LocalDateTime.now());
 
-        if ("DEPOSIT".equals(transactionDTO.getTransactionType())) {
-            account.setBalance(account.getBalance().add(transactionDTO.getAmount()));
-            transaction.setDescription("Deposit to account " + transactionDTO.getAccountNumber());
-        } else if ("WITHDRAWAL".equals(transactionDTO.getTransactionType())) {
-            if (account.getBalance().compareTo(transactionDTO.getAmount()) < 0) {
-                throw new IllegalArgumentException("Insufficient funds");
-            }
-            account.setBalance(account.getBalance().subtract(transactionDTO.getAmount()));
-            transaction.setDescription("Withdrawal from account " + transactionDTO.getAccountNumber());
-        } else if ("TRANSFER".equals(transactionDTO.getTransactionType())) {
-            if (transactionDTO.getToAccountNumber() == null) {
-                throw new IllegalArgumentException("Destination account number required for transfer");
-            }
-            Account toAccount = accountRepository.findByAccountNumber(transactionDTO.getToAccountNumber())
-                    .orElseThrow(() -> new IllegalArgumentException("Destination account not found"));
-            if (!"ACTIVE".equals(toAccount.getStatus())) {
-                throw new IllegalArgumentException("Destination account is not active");
-            }
-            if (account.getBalance().compareTo(transactionDTO.getAmount()) < 0) {
-                throw new IllegalArgumentException("Insufficient funds");
-            }
-            account.setBalance(account.getBalance().subtract(transactionDTO.getAmount()));
-            toAccount.setBalance(toAccount.getBalance().add(transactionDTO.getAmount()));
-            accountRepository.save(toAccount);
-            transaction.setDescription("Transfer from " + transactionDTO.getAccountNumber() + " to " + transactionDTO.getToAccountNumber());
+        if (type == TransactionType.DEPOSIT) {
+            transaction.setAccount(credit(transactionDTO.getAccountNumber(), amount,
+                    "Account not found", "Account is not active"));
+            describe(transaction, description, DescriptionCode.DEPOSIT);
+        } else if (type == TransactionType.WITHDRAWAL) {
+            transaction.setAccount(debit(transactionDTO.getAccountNumber(), amount,
+                    "Account not found", "Account is not active", "Insufficient funds"));
+            describe(transaction, description, DescriptionCode.WITHDRAWAL);
+        } else {
+            moveFunds(transaction, transactionDTO.getAccountNumber(), transactionDTO.getToAccountNumber(), amount,
+                    "Account not found", "Destination account not found",
+                    "Account is not active", "Destination account is not active");
+            describe(transaction, description, DescriptionCode.TRANSFER);
         }
 
-        accountRepository.save(account);
         Transaction savedTransaction = transactionRepository.save(transaction);
-        emailService.sendTransactionEmail(savedTransaction);
+        emailService.queueTransactionEmail(savedTransaction);
         return transactionMapper.toDTO(savedTransaction);
     }
 
     @Transactional
     public TransactionDTO updateTransaction(Long transactionId, TransactionDTO transactionDTO) {
-        Transaction transaction = transactionRepository.findById(transactionId)
-                .orElseThrow(() -> new IllegalArgumentException("Transaction not found"));
-        if (List.of("REVERSAL", "INTEREST").contains(transaction.getTransactionType())) {
+        requireDatabaseLedger();
+        Transaction transaction = transactionRepository.findForUpdateById(transactionId)
+                .orElseThrow(() -> BankingException.notFound("Transaction not found"));
+        TransactionType originalType = transaction.getTransactionType();
+        if (originalType == TransactionType.REVERSAL || originalType == TransactionType.INTEREST) {
             throw new IllegalArgumentException("Cannot update reversal or interest transactions");
         }
         if (transaction.getRelatedTransactionId() != null) {
@@ -375,60 +557,65 @@ public class AccountService {
         }
 
         Account account = transaction.getAccount();
-        if (!"ACTIVE".equals(account.getStatus())) {
-            throw new IllegalArgumentException("Account is not active");
+        if (account.getStatus() != AccountStatus.ACTIVE) {
+            throw BankingException.inactiveAccount("Account is not active");
         }
 
         // Revert the original transaction effect
-        BigDecimal originalAmount = transaction.getAmount();
-        String originalType = transaction.getTransactionType();
-        if ("DEPOSIT".equals(originalType)) {
-            if (account.getBalance().compareTo(originalAmount) < 0) {
-                throw new IllegalArgumentException("Insufficient funds to revert original deposit");
+        Money balance = totalBalance(account);
+        Money revertedBalance = balance;
+        Money originalAmount = transaction.getAmount();
+        if (originalType == TransactionType.DEPOSIT) {
+            if (balance.compareTo(originalAmount) < 0) {
+                throw BankingException.insufficientFunds("Insufficient funds to revert original deposit");
             }
-            account.setBalance(account.getBalance().subtract(originalAmount));
-        } else if ("WITHDRAWAL".equals(originalType)) {
-            account.setBalance(account.getBalance().add(originalAmount));
-        } else if ("TRANSFER".equals(originalType)) {
+            revertedBalance = balance.minus(originalAmount);
+        } else if (originalType == TransactionType.WITHDRAWAL) {
+            revertedBalance = balance.plus(originalAmount);
+        } else if (originalType == TransactionType.TRANSFER) {
             throw new IllegalArgumentException("Transfer updates require manual handling");
         }
 
         // Apply new transaction details
-        if (!isValidPaymentMethod(transactionDTO.getPaymentMethod())) {
-            throw new IllegalArgumentException("Invalid payment method");
-        }
-        if (transactionDTO.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Transaction amount must be positive");
-        }
+        PaymentMethod method = PaymentMethod.parse(transactionDTO.getPaymentMethod());
+        Money amount = positiveAmount(transactionDTO.getAmount(), "Transaction amount must be positive");
+        String description = clientDescription(transactionDTO.getDescription());
 
-        transaction.setPaymentMethod(transactionDTO.getPaymentMethod());
-        transaction.setAmount(transactionDTO.getAmount());
+        transactionRangeCache.invalidate(transaction.getTransactionDate());
+        transaction.setPaymentMethod(method);
+        transaction.setAmount(amount);
         transaction.setTransactionDate(LocalDateTime.now());
 
-        if ("DEPOSIT".equals(transactionDTO.getTransactionType())) {
-            account.setBalance(account.getBalance().add(transactionDTO.getAmount()));
-            transaction.setDescription("Updated deposit to account " + account.getAccountNumber());
-        } else if ("WITHDRAWAL".equals(transactionDTO.getTransactionType())) {
-            if (account.getBalance().compareTo(transactionDTO.getAmount()) < 0) {
-                throw new IllegalArgumentException("Insufficient funds for updated withdrawal");
+        String newType = transactionDTO.getTransactionType();
+        Money updatedBalance;
+        if (TransactionType.DEPOSIT.name().equals(newType)) {
+            updatedBalance = revertedBalance.plus(amount);
+            describe(transaction, description, DescriptionCode.DEPOSIT_UPDATE);
+        } else if (TransactionType.WITHDRAWAL.name().equals(newType)) {
+            if (revertedBalance.compareTo(amount) < 0) {
+                throw BankingException.insufficientFunds("Insufficient funds for updated withdrawal");
             }
-            account.setBalance(account.getBalance().subtract(transactionDTO.getAmount()));
-            transaction.setDescription("Updated withdrawal from account " + account.getAccountNumber());
+            updatedBalance = revertedBalance.minus(amount);
+            describe(transaction, description, DescriptionCode.WITHDRAWAL_UPDATE);
         } else {
             throw new IllegalArgumentException("Invalid transaction type for update");
         }
 
-        accountRepository.save(account);
+        // Apply the net change the way deposits and withdrawals do, so balance slots are included
+        Money change = updatedBalance.minus(balance);
+        if (change.signum() > 0) {
+            credit(account.getAccountNumber(), change, "Account not found", "Account is not active");
+        } else if (change.signum() < 0) {
+            debit(account.getAccountNumber(), Money.ZERO.minus(change), "Account not found", "Account is not active",
+                    "Insufficient funds for updated withdrawal");
+        }
         Transaction savedTransaction = transactionRepository.save(transaction);
-        emailService.sendTransactionEmail(savedTransaction);
+        emailService.queueTransactionEmail(savedTransaction);
         return transactionMapper.toDTO(savedTransaction);
     }
 
     public List<TransactionDTO> getTransactionsByType(String transactionType) {
-        if (!List.of("DEPOSIT", "WITHDRAWAL", "TRANSFER", "INTEREST", "REVERSAL").contains(transactionType)) {
-            throw new IllegalArgumentException("Invalid transaction type");
-        }
-        return transactionRepository.findByTransactionType(transactionType).stream()
+        return transactionRepository.findByTransactionType(TransactionType.parse(transactionType)).stream()
                 .map(transactionMapper::toDTO)
                 .collect(Collectors.toList());
     }
@@ -437,16 +624,255 @@ public class AccountService {
         if (startDate.isAfter(endDate)) {
             throw new IllegalArgumentException("Start date must be before end date");
         }
-        return transactionRepository.findByTransactionDateBetween(startDate, endDate).stream()
-                .map(transactionMapper::toDTO)
-                .collect(Collectors.toList());
+        return transactionRangeCache.findBetween(startDate, endDate);
+    }
+
+    /**
+     * Adds {@code amount} to an active account with a single conditional UPDATE and returns a
+     * reference to it. The account row is only read again to explain a rejected update.
+     */
+    private Account credit(String accountNumber, Money amount, String notFoundMessage, String inactiveMessage) {
+        Long accountId = accountRepository.creditActive(accountNumber, amount.minorUnits(), ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE))
+                .orElseThrow(() -> rejectedMovement(accountNumber, notFoundMessage, inactiveMessage,
+                        new IllegalArgumentException("Account could not be credited")));
+        return accountRepository.getReferenceById(accountId);
+    }
+
+    /**
+     * Subtracts {@code amount} from an active account holding at least that much, with a single
+     * conditional UPDATE, and returns a reference to it. For accounts with balance slots, a
+     * shortfall on the account row is covered from a random slot, or else by sweeping every slot
+     * back onto the account row and trying once more.
+     */
+    private Account debit(String accountNumber, Money amount, String notFoundMessage, String inactiveMessage,
+                          String insufficientFundsMessage) {
+        Long accountId = accountRepository.debitActive(accountNumber, amount.minorUnits()).orElse(null);
+        if (accountId == null) {
+            Account account = accountRepository.findByAccountNumber(accountNumber)
+                    .filter(candidate -> candidate.getStatus() == AccountStatus.ACTIVE && candidate.getBalanceSlots() > 0)
+                    .orElseThrow(() -> rejectedMovement(accountNumber, notFoundMessage, inactiveMessage,
+                            BankingException.insufficientFunds(insufficientFundsMessage)));
+            int slot = ThreadLocalRandom.current().nextInt(account.getBalanceSlots());
+            if (accountBalanceSlotRepository.debitSlot(account.getId(), slot, amount) == 1) {
+                return account;
+            }
+            accountRepository.sweepBalanceSlots(account.getId());
+            accountId = accountRepository.debitActive(accountNumber, amount.minorUnits())
+                    .orElseThrow(() -> BankingException.insufficientFunds(insufficientFundsMessage));
+        }
+        return accountRepository.getReferenceById(accountId);
+    }
+
+    /**
+     * Moves {@code amount} between two accounts and records them on {@code transaction} as its
+     * account and counterparty. Rows are updated in account number order so that opposing
+     * transfers cannot deadlock on each other's row locks; a rejected leg throws and rolls back
+     * the other.
+     */
+    private void moveFunds(Transaction transaction, String fromAccountNumber, String toAccountNumber, Money amount,
+                           String sourceNotFoundMessage, String destinationNotFoundMessage,
+                           String sourceInactiveMessage, String destinationInactiveMessage) {
+        if (fromAccountNumber == null || toAccountNumber == null || fromAccountNumber.compareTo(toAccountNumber) <= 0) {
+            transaction.setAccount(debit(fromAccountNumber, amount, sourceNotFoundMessage, sourceInactiveMessage, "Insufficient funds"));
+            transaction.setCounterpartyAccount(credit(toAccountNumber, amount, destinationNotFoundMessage, destinationInactiveMessage));
+        } else {
+            transaction.setCounterpartyAccount(credit(toAccountNumber, amount, destinationNotFoundMessage, destinationInactiveMessage));
+            transaction.setAccount(debit(fromAccountNumber, amount, sourceNotFoundMessage, sourceInactiveMessage, "Insufficient funds"));
+        }
+    }
+
+    private BatchTransferCheck validateBatchTransfer(TransferRequestDTO transfer, Map<String, Account> accounts) {
+        if (transfer.getAmount() == null || transfer.getAmount().signum() <= 0) {
+            return BatchTransferCheck.rejected("Transfer amount must be positive");
+        }
+        Money amount;
+        try {
+            amount = Money.of(transfer.getAmount());
+        } catch (IllegalArgumentException e) {
+            return BatchTransferCheck.rejected(e.getMessage());
+        }
+        PaymentMethod paymentMethod;
+        try {
+            paymentMethod = PaymentMethod.parse(transfer.getPaymentMethod());
+        } catch (IllegalArgumentException e) {
+            return BatchTransferCheck.rejected("Invalid payment method");
+        }
+        if (!AccountNumberGenerator.isWellFormed(transfer.getFromAccountNumber())
+                || !AccountNumberGenerator.isWellFormed(transfer.getToAccountNumber())) {
+            return BatchTransferCheck.rejected("Invalid account number");
+        }
+        Account fromAccount = accounts.get(transfer.getFromAccountNumber());
+        if (fromAccount == null) {
+            return BatchTransferCheck.rejected("Source account not found");
+        }
+        Account toAccount = accounts.get(transfer.getToAccountNumber());
+        if (toAccount == null) {
+            return BatchTransferCheck.rejected("Destination account not found");
+        }
+        if (fromAccount.getStatus() != AccountStatus.ACTIVE || toAccount.getStatus() != AccountStatus.ACTIVE) {
+            return BatchTransferCheck.rejected("One or both accounts are not active");
+        }
+        if (fromAccount.getBalance().compareTo(amount) < 0 && fromAccount.getBalanceSlots() > 0) {
+            // The row is locked by the batch: move what the slots hold onto it, as a single debit would
+            fromAccount.setBalance(fromAccount.getBalance().plus(Money.of(accountBalanceSlotRepository.drainSlots(fromAccount.getId()))));
+        }
+        if (fromAccount.getBalance().compareTo(amount) < 0) {
+            return BatchTransferCheck.rejected("Insufficient funds");
+        }
+        return new BatchTransferCheck(amount, paymentMethod, null);
+    }
+
+    private IllegalArgumentException rejectedMovement(String accountNumber, String notFoundMessage, String inactiveMessage,
+                                                      IllegalArgumentException otherwise) {
+        Account account = accountRepository.findByAccountNumber(accountNumber).orElse(null);
+        if (account == null) {
+            return BankingException.notFound(notFoundMessage);
+        }
+        if (account.getStatus() != AccountStatus.ACTIVE) {
+            return BankingException.inactiveAccount(inactiveMessage);
+        }
+        return otherwise;
+    }
+
+    /**
+     * Returns the free-text description a client supplied, or null when it left it blank.
+     */
+    private static String clientDescription(String description) {
+        if (description == null || description.isBlank()) {
+            return null;
+        }
+        if (description.length() > MAX_DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException("Description must be at most " + MAX_DESCRIPTION_LENGTH + " characters");
+        }
+        return description;
     }
 
-    private boolean isValidPaymentMethod(String paymentMethod) {
-        return paymentMethod != null && (
-                paymentMethod.equals("PAYPAL") ||
-                        paymentMethod.equals("CREDIT_CARD") ||
-                        paymentMethod.equals("BANK_TRANSFER")
-        );
+    /**
+     * Describes {@code transaction} with the client's free text if there is any, otherwise with
+     * {@code code}.
+     */
+    private static void describe(Transaction transaction, String description, DescriptionCode code) {
+        transaction.setDescription(description);
+        transaction.setDescriptionCode(description == null ? code : null);
+    }
+
+    /**
+     * Converts an amount from a request, rejecting missing and non-positive amounts with
+     * {@code notPositiveMessage}.
+     */
+    private static Money positiveAmount(BigDecimal amount, String notPositiveMessage) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new IllegalArgumentException(notPositiveMessage);
+        }
+        return Money.of(amount);
+    }
+
+    /**
+     * Interest on {@code balance} at {@code ratePercent}, rounded half up to cents.
+     */
+    static Money calculateInterest(Money balance, BigDecimal ratePercent) {
+        return balance.percent(ratePercent, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Returns the account balance including any balance slots.
+     */
+    private Money totalBalance(Account account) {
+        if (ledgerEngine != null) {
+            return ledgerEngine.account(account.getAccountNumber())
+                    .map(LedgerAccount::balance)
+                    .orElse(account.getBalance());
+        }
+        if (account.getBalanceSlots() == 0) {
+            return account.getBalance();
+        }
+        return account.getBalance().plus(Money.of(accountBalanceSlotRepository.sumBalanceByAccountId(account.getId())));
+    }
+
+    /**
+     * Describes a money movement accepted by the ledger engine. The transaction row itself is
+     * written later by the projector.
+     */
+    private TransactionDTO toTransactionDTO(LedgerCommand command) {
+        TransactionDTO transactionDTO = new TransactionDTO();
+        transactionDTO.setAccountId(ledgerEngine.account(command.accountNumber()).map(LedgerAccount::id).orElse(null));
+        transactionDTO.setAccountNumber(command.accountNumber());
+        if (command.toAccountNumber() != null) {
+            transactionDTO.setCounterpartyAccountId(ledgerEngine.account(command.toAccountNumber()).map(LedgerAccount::id).orElse(null));
+        }
+        transactionDTO.setToAccountNumber(command.toAccountNumber());
+        transactionDTO.setTransactionType(command.type().name());
+        transactionDTO.setAmount(command.amount().toBigDecimal());
+        transactionDTO.setTransactionDate(command.timestamp());
+        transactionDTO.setDescription(command.descriptionCode() == null ? null
+                : command.descriptionCode().render(command.accountNumber(), command.toAccountNumber()));
+        transactionDTO.setPaymentMethod(command.paymentMethod() == null ? null : command.paymentMethod().name());
+        return transactionDTO;
+    }
+
+    /**
+     * Submits a ledger command for {@code accountNumber} once the current transaction has
+     * committed, so the ledger never sees a database change that is rolled back. The change has
+     * committed by then, so a failure is logged instead of reported; the ledger reconciles its
+     * accounts with the database on startup.
+     */
+    private static void afterCommit(String accountNumber, Runnable ledgerCommand) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    ledgerCommand.run();
+                } catch (RuntimeException e) {
+                    log.error("Ledger did not accept the change to account {}; it is reconciled on the next startup",
+                            accountNumber, e);
+                }
+            }
+        });
+    }
+
+    private void requireDatabaseLedger() {
+        if (ledgerEngine != null) {
+            throw new UnsupportedOperationException("Operation is not supported while the in-memory ledger is enabled");
+        }
+    }
+
+    /**
+     * Maps an account to its DTO, reporting the total balance including balance slots or, when
+     * enabled, the in-memory ledger.
+     */
+    public AccountDTO toAccountDTO(Account account) {
+        AccountDTO accountDTO = accountMapper.toDTO(account);
+        accountDTO.setBalance(totalBalance(account).toBigDecimal());
+        return accountDTO;
+    }
+
+    /**
+     * Position in an account's transaction history, handed to clients as an opaque token.
+     */
+    /**
+     * A batch transfer's parsed amount and payment method, or why it was rejected.
+     */
+    private record BatchTransferCheck(Money amount, PaymentMethod paymentMethod, String error) {
+        static BatchTransferCheck rejected(String error) {
+            return new BatchTransferCheck(null, null, error);
+        }
+    }
+
+    record HistoryCursor(LocalDateTime transactionDate, Long id) {
+        String encode() {
+            String position = transactionDate + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = position.indexOf('|');
+                return new HistoryCursor(LocalDateTime.parse(position.substring(0, separator)),
+                        Long.parseLong(position.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
     }
-}
\ No newline at end of file
+}
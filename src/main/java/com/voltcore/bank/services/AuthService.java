@@ -1,10 +1,13 @@
 package com.voltcore.bank.services;
 
+import com.voltcore.bank.config.TokenVersionCache;
 import com.voltcore.bank.dtos.UserDTO;
 import com.voltcore.bank.entities.User;
 import com.voltcore.bank.mappers.UserMapper;
 import com.voltcore.bank.repositories.UserRepository;
 import jakarta.transaction.Transactional;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -15,15 +18,18 @@ import java.util.stream.Collectors;
  * Service class for handling authentication and user management operations.
  */
 @Service
-public class AuthService {
+public class AuthService implements UserDetailsPasswordService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionCache tokenVersionCache;
 
-    public AuthService(UserRepository userRepository, UserMapper userMapper, PasswordEncoder passwordEncoder) {
+    public AuthService(UserRepository userRepository, UserMapper userMapper, PasswordEncoder passwordEncoder,
+                       TokenVersionCache tokenVersionCache) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
         this.passwordEncoder = passwordEncoder;
+        this.tokenVersionCache = tokenVersionCache;
     }
 
     @Transactional
@@ -40,28 +46,50 @@ public class AuthService {
     @Transactional
     public UserDTO updateUser(String username, UserDTO userDTO) {
         User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+                .orElseThrow(() -> BankingException.notFound("User not found"));
         user.setEmail(userDTO.getEmail());
+        boolean revokeTokens = false;
         if (userDTO.getPassword() != null && !userDTO.getPassword().isEmpty()) {
             user.setPassword(passwordEncoder.encode(userDTO.getPassword()));
+            revokeTokens = true;
         }
-        if (userDTO.getRole() != null) {
+        if (userDTO.getRole() != null && !userDTO.getRole().equals(user.getRole())) {
             user.setRole(userDTO.getRole());
+            revokeTokens = true;
+        }
+        if (revokeTokens) {
+            // Tokens carry the role, so issued ones must not outlive a role or password change
+            user.setTokenVersion(user.getTokenVersion() + 1);
+            tokenVersionCache.evict(user.getId());
         }
         User savedUser = userRepository.save(user);
         return userMapper.toDTO(savedUser);
     }
 
+    /**
+     * Stores a re-encoded hash of the user's unchanged password, called after a successful login
+     * with a hash of an outdated cost or algorithm. Issued tokens stay valid.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newEncodedPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> BankingException.notFound("User not found"));
+        user.setPassword(newEncodedPassword);
+        return userRepository.save(user);
+    }
+
     @Transactional
     public void deleteUser(String username) {
         User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+                .orElseThrow(() -> BankingException.notFound("User not found"));
         userRepository.delete(user);
+        tokenVersionCache.evict(user.getId());
     }
 
     public UserDTO getUser(String username) {
         User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+                .orElseThrow(() -> BankingException.notFound("User not found"));
         return userMapper.toDTO(user);
     }
 
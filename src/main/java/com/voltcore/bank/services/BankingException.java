@@ -0,0 +1,37 @@
+package com.voltcore.bank.services;
+
+/**
+ * A request refused for a business reason that callers and metrics tell apart by
+ * {@link #getReason()} rather than by message. Other refusals remain plain
+ * {@link IllegalArgumentException}s.
+ */
+public class BankingException extends IllegalArgumentException {
+    public enum Reason {
+        NOT_FOUND,
+        INACTIVE_ACCOUNT,
+        INSUFFICIENT_FUNDS
+    }
+
+    private final Reason reason;
+
+    public BankingException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public static BankingException notFound(String message) {
+        return new BankingException(Reason.NOT_FOUND, message);
+    }
+
+    public static BankingException inactiveAccount(String message) {
+        return new BankingException(Reason.INACTIVE_ACCOUNT, message);
+    }
+
+    public static BankingException insufficientFunds(String message) {
+        return new BankingException(Reason.INSUFFICIENT_FUNDS, message);
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,89 @@
+package com.voltcore.bank.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a unit of work when it fails with an optimistic locking conflict.
+ * <p>
+ * Each retry waits for a random delay up to an exponentially growing cap (full jitter) so that
+ * writers racing on the same account spread out instead of colliding again. Retries only happen
+ * at the outermost transaction boundary; nested calls run once and let the caller retry.
+ * Conflicts and retries are published as the {@code voltcore.accounts.conflicts} and
+ * {@code voltcore.accounts.conflict.retries} counters, tagged by operation.
+ */
+@Component
+public class ConflictRetryExecutor {
+    private static final Logger log = LoggerFactory.getLogger(ConflictRetryExecutor.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public ConflictRetryExecutor(MeterRegistry meterRegistry,
+                                 @Value("${voltcore.accounts.conflict-retry.max-attempts:5}") int maxAttempts,
+                                 @Value("${voltcore.accounts.conflict-retry.initial-backoff:10ms}") Duration initialBackoff,
+                                 @Value("${voltcore.accounts.conflict-retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = Math.max(1, initialBackoff.toMillis());
+        this.maxBackoffMillis = Math.max(initialBackoffMillis, maxBackoff.toMillis());
+    }
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.get();
+            } catch (OptimisticLockingFailureException e) {
+                conflictCounter(operation).increment();
+                if (attempt >= maxAttempts) {
+                    log.warn("Giving up on {} after {} conflicting attempts on {}", operation, attempt, conflictTarget(e));
+                    throw e;
+                }
+                log.debug("Retrying {} after conflict on {} (attempt {})", operation, conflictTarget(e), attempt);
+                retryCounter(operation).increment();
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        long cap = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying after a conflicting update", e);
+        }
+    }
+
+    private Counter conflictCounter(String operation) {
+        return meterRegistry.counter("voltcore.accounts.conflicts", "operation", operation);
+    }
+
+    private Counter retryCounter(String operation) {
+        return meterRegistry.counter("voltcore.accounts.conflict.retries", "operation", operation);
+    }
+
+    private static Object conflictTarget(OptimisticLockingFailureException e) {
+        if (e instanceof ObjectOptimisticLockingFailureException objectFailure) {
+            return objectFailure.getPersistentClassName() + "#" + objectFailure.getIdentifier();
+        }
+        return "unknown entity";
+    }
+}
@@ -1,43 +1,140 @@
 package com.voltcore.bank.services;
 
+import com.voltcore.bank.entities.DescriptionCode;
+import com.voltcore.bank.entities.Notification;
 import com.voltcore.bank.entities.Transaction;
+import com.voltcore.bank.repositories.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Service class for sending email notifications.
+ * <p>
+ * Notifications are written to an outbox table in the caller's transaction and delivered later
+ * by {@link NotificationDispatcher}, so a slow or unavailable mail server never holds up or fails
+ * a money movement.
  */
 @Service
 public class EmailService {
+    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
+
     private final JavaMailSender mailSender;
+    private final NotificationRepository notificationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration sendLease;
 
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender,
+                        NotificationRepository notificationRepository,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${voltcore.notifications.max-attempts:8}") int maxAttempts,
+                        @Value("${voltcore.notifications.retry-backoff:30s}") Duration retryBackoff,
+                        @Value("${voltcore.notifications.send-lease:5m}") Duration sendLease) {
         this.mailSender = mailSender;
+        this.notificationRepository = notificationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = retryBackoff;
+        this.sendLease = sendLease;
     }
 
     /**
-     * Sends a transaction notification email to the account holder.
+     * Queues a transaction notification email to the account holder.
      */
-    public void sendTransactionEmail(Transaction transaction) {
+    public void queueTransactionEmail(Transaction transaction) {
         String email = transaction.getAccount().getEmail();
         if (email == null || email.isEmpty()) {
             return; // Skip if no email is provided
         }
 
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(email);
-        message.setSubject("Transaction Notification");
-        message.setText(
+        LocalDateTime now = LocalDateTime.now();
+        Notification notification = new Notification();
+        notification.setRecipient(email);
+        notification.setSubject("Transaction Notification");
+        notification.setBody(
                 "Dear " + transaction.getAccount().getAccountHolderName() + ",\n\n" +
                         "A transaction has been processed on your account:\n" +
                         "Type: " + transaction.getTransactionType() + "\n" +
                         "Amount: $" + transaction.getAmount() + "\n" +
                         "Payment Method: " + (transaction.getPaymentMethod() != null ? transaction.getPaymentMethod() : "N/A") + "\n" +
                         "Date: " + transaction.getTransactionDate() + "\n" +
-                        "Description: " + transaction.getDescription() + "\n\n" +
+                        "Description: " + DescriptionCode.describe(transaction) + "\n\n" +
                         "Thank you for banking with us!"
         );
-        mailSender.send(message);
+        notification.setCreatedAt(now);
+        notification.setNextAttemptAt(now);
+        notificationRepository.save(notification);
+    }
+
+    /**
+     * Sends up to {@code batchSize} due notifications. The batch is claimed in a short transaction
+     * that marks it SENDING for {@code voltcore.notifications.send-lease}; the mails are sent
+     * outside any transaction and each outcome is committed on its own, so one failure never
+     * causes mails that were already sent to go out again. Notifications whose lease ran out, for
+     * example because the dispatcher died mid-batch, are claimed again. Failed sends are retried
+     * with exponential backoff and marked DEAD once they run out of attempts.
+     *
+     * @return the number of notifications claimed
+     */
+    public int dispatchPending(int batchSize) {
+        List<Notification> claimed = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Notification> due = notificationRepository.claimDue(now, batchSize);
+            for (Notification notification : due) {
+                notification.setStatus("SENDING");
+                notification.setNextAttemptAt(now.plus(sendLease));
+            }
+            return due;
+        });
+        for (Notification notification : claimed) {
+            send(notification);
+        }
+        return claimed.size();
+    }
+
+    private void send(Notification notification) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(notification.getRecipient());
+        message.setSubject(notification.getSubject());
+        message.setText(notification.getBody());
+        notification.setAttempts(notification.getAttempts() + 1);
+        try {
+            mailSender.send(message);
+            notification.setStatus("SENT");
+            notification.setSentAt(LocalDateTime.now());
+            notification.setLastError(null);
+        } catch (RuntimeException e) {
+            if (!(e instanceof MailException)) {
+                log.error("Unexpected failure sending notification {}", notification.getId(), e);
+            }
+            notification.setLastError(truncate(e.getMessage()));
+            if (notification.getAttempts() >= maxAttempts) {
+                notification.setStatus("DEAD");
+                log.warn("Giving up on notification {} after {} attempts: {}", notification.getId(), notification.getAttempts(), e.getMessage());
+            } else {
+                long factor = 1L << Math.min(notification.getAttempts() - 1, 10);
+                notification.setStatus("PENDING");
+                notification.setNextAttemptAt(LocalDateTime.now().plus(retryBackoff.multipliedBy(factor)));
+            }
+        }
+        notificationRepository.save(notification);
+    }
+
+    private static String truncate(String message) {
+        if (message == null || message.length() <= 1000) {
+            return message;
+        }
+        return message.substring(0, 1000);
     }
-}
\ No newline at end of file
+}
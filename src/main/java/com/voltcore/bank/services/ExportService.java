@@ -0,0 +1,123 @@
+package com.voltcore.bank.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voltcore.bank.dtos.AccountDTO;
+import com.voltcore.bank.dtos.TransactionDTO;
+import com.voltcore.bank.entities.Account;
+import com.voltcore.bank.entities.Transaction;
+import com.voltcore.bank.mappers.TransactionMapper;
+import com.voltcore.bank.repositories.AccountRepository;
+import com.voltcore.bank.repositories.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Service class that writes full exports of accounts and transactions as NDJSON or CSV.
+ * <p>
+ * Rows are read through a forward-only database cursor and written one at a time, and the
+ * persistence context is cleared every {@value #CLEAR_INTERVAL} rows, so memory use does not grow
+ * with the size of the table.
+ */
+@Service
+public class ExportService {
+    private static final int CLEAR_INTERVAL = 1000;
+    private static final List<String> ACCOUNT_COLUMNS = List.of(
+            "accountNumber", "accountHolderName", "balance", "accountType", "status", "interestRate", "email");
+    private static final List<String> TRANSACTION_COLUMNS = List.of(
+            "accountId", "counterpartyAccountId", "transactionType", "amount", "transactionDate", "description", "relatedTransactionId", "paymentMethod");
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountService accountService;
+    private final TransactionMapper transactionMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    public ExportService(AccountRepository accountRepository,
+                         TransactionRepository transactionRepository,
+                         AccountService accountService,
+                         TransactionMapper transactionMapper,
+                         ObjectMapper objectMapper,
+                         EntityManager entityManager) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountService = accountService;
+        this.transactionMapper = transactionMapper;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+    }
+
+    @Transactional
+    public void exportAccounts(OutputStream out, ExportFormat format) throws IOException {
+        try (Stream<Account> accounts = accountRepository.streamAll()) {
+            write(out, format, accounts.iterator(), accountService::toAccountDTO, ACCOUNT_COLUMNS, account -> Arrays.asList(
+                    account.getAccountNumber(), account.getAccountHolderName(), account.getBalance(),
+                    account.getAccountType(), account.getStatus(), account.getInterestRate(), account.getEmail()));
+        }
+    }
+
+    @Transactional
+    public void exportTransactions(OutputStream out, ExportFormat format) throws IOException {
+        try (Stream<Transaction> transactions = transactionRepository.streamAll()) {
+            write(out, format, transactions.iterator(), transactionMapper::toDTO, TRANSACTION_COLUMNS, transaction -> Arrays.asList(
+                    transaction.getAccountId(), transaction.getCounterpartyAccountId(), transaction.getTransactionType(),
+                    transaction.getAmount(), transaction.getTransactionDate(), transaction.getDescription(),
+                    transaction.getRelatedTransactionId(), transaction.getPaymentMethod()));
+        }
+    }
+
+    private <E, D> void write(OutputStream out, ExportFormat format, Iterator<E> rows, Function<E, D> toDTO,
+                              List<String> columns, Function<D, List<?>> toColumns) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == ExportFormat.CSV) {
+            writeCsvLine(writer, columns);
+        }
+        int written = 0;
+        while (rows.hasNext()) {
+            D dto = toDTO.apply(rows.next());
+            if (format == ExportFormat.CSV) {
+                writeCsvLine(writer, toColumns.apply(dto));
+            } else {
+                writer.write(objectMapper.writeValueAsString(dto));
+                writer.write('\n');
+            }
+            if (++written % CLEAR_INTERVAL == 0) {
+                entityManager.clear();
+            }
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writer.write(escapeCsv(value.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,216 @@
+package com.voltcore.bank.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.voltcore.bank.dtos.TransactionDTO;
+import com.voltcore.bank.entities.IdempotencyRecord;
+import com.voltcore.bank.ledger.LedgerEngine;
+import com.voltcore.bank.repositories.IdempotencyRecordRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Service class that makes money-moving requests safe to retry via an {@code Idempotency-Key}.
+ * <p>
+ * A key is first claimed with a pending record committed on its own, so a concurrent duplicate
+ * loses on the unique key before any money moves and is answered with 409 Conflict until the
+ * first request finishes; reusing a key for a different request is a 409 as well. The response
+ * is then stored in the same transaction as the money
+ * movement. With the in-memory ledger the movement is durable before that transaction commits,
+ * so there the claim is released only when the request was rejected; otherwise it stays pending
+ * until it expires rather than risk moving the money twice. Recently used keys are also held in a
+ * size-bounded cache so retries return without touching the database. Keys are scoped to the
+ * authenticated user and may be up to {@value #MAX_SCOPED_KEY_LENGTH} characters with that scope.
+ */
+@Service
+public class IdempotencyService {
+    static final int MAX_SCOPED_KEY_LENGTH = 400; // idempotency_record.idempotency_key
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConflictRetryExecutor conflictRetryExecutor;
+    private final ObjectMapper objectMapper;
+    private final boolean ledgerEnabled;
+    private final Duration ttl;
+    private final Cache<String, StoredResponse> recentResponses;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              TransactionTemplate transactionTemplate,
+                              ConflictRetryExecutor conflictRetryExecutor,
+                              ObjectMapper objectMapper,
+                              ObjectProvider<LedgerEngine> ledgerEngine,
+                              @Value("${voltcore.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${voltcore.idempotency.cache-size:10000}") long cacheSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.conflictRetryExecutor = conflictRetryExecutor;
+        this.objectMapper = objectMapper;
+        this.ledgerEnabled = ledgerEngine.getIfAvailable() != null;
+        this.ttl = ttl;
+        this.recentResponses = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Runs {@code work} once per idempotency key and returns the stored response for repeats.
+     * Without a key the work simply runs.
+     *
+     * @param idempotencyKey the client-supplied key, may be null
+     * @param request        a canonical description of the request, used to reject key reuse
+     *                       with different arguments; amounts go through {@link #canonical}
+     */
+    public TransactionDTO execute(String idempotencyKey, String request, Supplier<TransactionDTO> work) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return work.get();
+        }
+        String scopedKey = scope(idempotencyKey);
+        if (scopedKey.length() > MAX_SCOPED_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Idempotency-Key is too long");
+        }
+        String fingerprint = fingerprint(request);
+
+        StoredResponse cached = recentResponses.getIfPresent(scopedKey);
+        if (cached != null) {
+            return cached.replay(fingerprint);
+        }
+
+        IdempotencyRecord claim;
+        try {
+            claim = transactionTemplate.execute(status -> claim(scopedKey, fingerprint));
+        } catch (DataIntegrityViolationException e) {
+            // The key was claimed before: replay its response once there is one
+            StoredResponse stored = idempotencyRecordRepository.findByIdempotencyKey(scopedKey)
+                    .map(this::toStoredResponse)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                            "A request with this Idempotency-Key is still being processed"));
+            if (stored.response() != null) {
+                recentResponses.put(scopedKey, stored);
+            }
+            return stored.replay(fingerprint);
+        }
+
+        TransactionDTO response;
+        try {
+            response = conflictRetryExecutor.execute("idempotentRequest", () -> transactionTemplate.execute(status -> {
+                TransactionDTO result = work.get();
+                idempotencyRecordRepository.saveResponse(claim.getId(), serialize(result));
+                return result;
+            }));
+        } catch (RuntimeException e) {
+            if (!ledgerEnabled || isRejection(e)) {
+                // Nothing moved: let the client retry with the same key
+                transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.deleteById(claim.getId()));
+            }
+            throw e;
+        }
+        recentResponses.put(scopedKey, new StoredResponse(fingerprint, response));
+        return response;
+    }
+
+    /**
+     * The form of {@code amount} used in request descriptions, so that 10, 10.0 and 10.00 are the
+     * same request.
+     */
+    public static String canonical(BigDecimal amount) {
+        return amount == null ? null : amount.stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Deletes stored responses whose keys have expired.
+     */
+    @Scheduled(fixedDelayString = "${voltcore.idempotency.sweep-interval-ms:600000}")
+    @Transactional
+    public void sweepExpired() {
+        idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    private IdempotencyRecord claim(String scopedKey, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setIdempotencyKey(scopedKey);
+        record.setRequestFingerprint(fingerprint);
+        record.setCreatedAt(now);
+        record.setExpiresAt(now.plus(ttl));
+        return idempotencyRecordRepository.saveAndFlush(record);
+    }
+
+    private String serialize(TransactionDTO response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response for idempotency key", e);
+        }
+    }
+
+    private StoredResponse toStoredResponse(IdempotencyRecord record) {
+        if (record.getResponseBody() == null) {
+            return new StoredResponse(record.getRequestFingerprint(), null);
+        }
+        try {
+            return new StoredResponse(record.getRequestFingerprint(),
+                    objectMapper.readValue(record.getResponseBody(), TransactionDTO.class));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored response for idempotency key", e);
+        }
+    }
+
+    /**
+     * Whether {@code e} refused the request before any money moved.
+     */
+    private static boolean isRejection(RuntimeException e) {
+        return e instanceof IllegalArgumentException || e instanceof UnsupportedOperationException
+                || e instanceof ResponseStatusException statusException && statusException.getStatusCode().is4xxClientError();
+    }
+
+    private static String scope(String idempotencyKey) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String owner = authentication != null ? authentication.getName() : "anonymous";
+        return owner + ":" + idempotencyKey;
+    }
+
+    private static String fingerprint(String request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * @param response the first response for the key, or null while its request is still running
+     */
+    private record StoredResponse(String fingerprint, TransactionDTO response) {
+        TransactionDTO replay(String requestFingerprint) {
+            if (!fingerprint.equals(requestFingerprint)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "Idempotency key was already used for a different request");
+            }
+            if (response == null) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is still being processed");
+            }
+            return response;
+        }
+    }
+}
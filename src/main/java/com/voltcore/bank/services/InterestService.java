@@ -0,0 +1,230 @@
+package com.voltcore.bank.services;
+
+import com.voltcore.bank.dtos.InterestRunDTO;
+import com.voltcore.bank.entities.InterestRun;
+import com.voltcore.bank.ledger.LedgerEngine;
+import com.voltcore.bank.mappers.InterestRunMapper;
+import com.voltcore.bank.repositories.AccountRepository;
+import com.voltcore.bank.repositories.InterestRunRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service class that credits interest to all active interest-bearing accounts in one run.
+ * <p>
+ * A run walks the accounts in id order, cutting them into keyset chunks. Each chunk is a single
+ * set-based statement that updates the balances and inserts the INTEREST transactions, executed
+ * in its own transaction on a bounded worker pool. A run credits one period, the calendar month
+ * it started in, and accounts remember the last period they were credited for, so a chunk that is
+ * repeated after a crash, a second run for the same period or a run executing on two instances
+ * skips them. Once a period has a COMPLETED run, no further run is started for it.
+ * <p>
+ * Runs are claimed in the database under an advisory lock, so at most one run is RUNNING across
+ * all instances. The claiming instance holds a lease on the run ({@code voltcore.interest.lease})
+ * and renews it whenever the checkpoint advances past a chunk that, with every chunk before it,
+ * has committed. A run whose instance stopped is resumed from its checkpoint, on startup or on the
+ * next request, once its lease has expired. A run that fails is marked FAILED; the next run for
+ * the period starts over and skips the accounts already credited. Bulk runs do not send
+ * notification emails.
+ */
+@Service
+public class InterestService {
+    private static final Logger log = LoggerFactory.getLogger(InterestService.class);
+    private static final long CLAIM_LOCK_KEY = 0x766f6c74_696e7472L; // Advisory lock key serializing run claims
+
+    private final AccountRepository accountRepository;
+    private final InterestRunRepository interestRunRepository;
+    private final InterestRunMapper interestRunMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerEngine ledgerEngine; // null unless voltcore.ledger.enabled
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+    private final Duration lease;
+    private final ExecutorService coordinator;
+    private final ExecutorService workers;
+
+    public InterestService(AccountRepository accountRepository,
+                           InterestRunRepository interestRunRepository,
+                           InterestRunMapper interestRunMapper,
+                           TransactionTemplate transactionTemplate,
+                           ObjectProvider<LedgerEngine> ledgerEngine,
+                           @Value("${voltcore.interest.chunk-size:1000}") int chunkSize,
+                           @Value("${voltcore.interest.parallelism:4}") int parallelism,
+                           @Value("${voltcore.interest.lease:5m}") Duration lease) {
+        this.accountRepository = accountRepository;
+        this.interestRunRepository = interestRunRepository;
+        this.interestRunMapper = interestRunMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.ledgerEngine = ledgerEngine.getIfAvailable();
+        this.chunkSize = Math.max(1, chunkSize);
+        int workerCount = Math.max(1, parallelism);
+        this.maxChunksInFlight = workerCount * 2;
+        this.lease = lease;
+        this.coordinator = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "interest-run"));
+        AtomicInteger workerNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount,
+                runnable -> new Thread(runnable, "interest-worker-" + workerNumber.incrementAndGet()));
+    }
+
+    /**
+     * Starts a bulk interest run in the background, or resumes the unfinished one.
+     */
+    public InterestRunDTO startRun() {
+        if (ledgerEngine != null) {
+            throw new UnsupportedOperationException("Operation is not supported while the in-memory ledger is enabled");
+        }
+        InterestRun run = claimRun();
+        coordinator.submit(() -> execute(run.getId()));
+        return interestRunMapper.toDTO(run);
+    }
+
+    public InterestRunDTO getRun(Long runId) {
+        return interestRunRepository.findById(runId)
+                .map(interestRunMapper::toDTO)
+                .orElseThrow(() -> BankingException.notFound("Interest run not found"));
+    }
+
+    @Scheduled(cron = "${voltcore.interest.cron:0 0 2 1 * *}")
+    public void scheduledRun() {
+        startIfIdle();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedRun() {
+        if (interestRunRepository.findFirstByStatusOrderByIdAsc("RUNNING").isPresent()) {
+            startIfIdle();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void startIfIdle() {
+        if (ledgerEngine != null) {
+            log.info("Skipping bulk interest run while the in-memory ledger is enabled");
+            return;
+        }
+        try {
+            startRun();
+        } catch (IllegalArgumentException e) {
+            log.info("Skipping bulk interest run: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Takes the lease on the RUNNING run if it has expired, or else starts a run for the current
+     * period unless one has already completed.
+     */
+    private InterestRun claimRun() {
+        return transactionTemplate.execute(status -> {
+            interestRunRepository.lockForClaim(CLAIM_LOCK_KEY);
+            LocalDateTime now = LocalDateTime.now();
+            InterestRun run = interestRunRepository.findFirstByStatusOrderByIdAsc("RUNNING").orElse(null);
+            if (run == null) {
+                LocalDate period = now.toLocalDate().withDayOfMonth(1);
+                if (interestRunRepository.existsByPeriodAndStatus(period, "COMPLETED")) {
+                    throw new IllegalArgumentException("Interest for " + YearMonth.from(period) + " has already been credited");
+                }
+                run = new InterestRun();
+                run.setPeriod(period);
+                run.setStartedAt(now);
+            } else if (run.getClaimedUntil() != null && run.getClaimedUntil().isAfter(now)) {
+                throw new IllegalArgumentException("Interest run " + run.getId() + " is already in progress");
+            }
+            run.setClaimedUntil(now.plus(lease));
+            return interestRunRepository.save(run);
+        });
+    }
+
+    private void execute(long runId) {
+        InterestRun run = interestRunRepository.findById(runId).orElseThrow();
+        try {
+            log.info("Interest run {} starting after account id {}", runId, run.getLastAccountId());
+            Deque<Chunk> inFlight = new ArrayDeque<>();
+            long afterId = run.getLastAccountId();
+            while (true) {
+                List<Long> ids = accountRepository.findInterestBearingIdsAfter(afterId, chunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                long fromId = afterId;
+                long toId = ids.get(ids.size() - 1);
+                LocalDate period = run.getPeriod();
+                inFlight.addLast(new Chunk(toId, workers.submit(() -> transactionTemplate.execute(status ->
+                        accountRepository.accrueInterest(period, fromId, toId, LocalDateTime.now())))));
+                afterId = toId;
+
+                if (inFlight.size() >= maxChunksInFlight) {
+                    run = checkpoint(run, inFlight.removeFirst());
+                }
+                while (!inFlight.isEmpty() && inFlight.peekFirst().result().isDone()) {
+                    run = checkpoint(run, inFlight.removeFirst());
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                run = checkpoint(run, inFlight.removeFirst());
+            }
+
+            run.setStatus("COMPLETED");
+            run.setCompletedAt(LocalDateTime.now());
+            run.setAccountsCredited(accountRepository.countByLastInterestDate(run.getPeriod()));
+            run.setClaimedUntil(null);
+            run.setError(null);
+            interestRunRepository.save(run);
+            log.info("Interest run {} completed for {} accounts", runId, run.getAccountsCredited());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Interest run {} interrupted at account id {}; it will resume from there", runId, run.getLastAccountId());
+            run.setClaimedUntil(null);
+            interestRunRepository.save(run);
+        } catch (Exception e) {
+            log.error("Interest run {} failed at account id {}", runId, run.getLastAccountId(), e);
+            run.setStatus("FAILED");
+            run.setCompletedAt(LocalDateTime.now());
+            run.setClaimedUntil(null);
+            run.setError(truncate(String.valueOf(e.getMessage())));
+            interestRunRepository.save(run);
+        }
+    }
+
+    /**
+     * Waits for the oldest outstanding chunk and advances the checkpoint past it.
+     */
+    private InterestRun checkpoint(InterestRun run, Chunk chunk) throws InterruptedException, ExecutionException {
+        chunk.result().get();
+        run.setLastAccountId(chunk.toId());
+        run.setClaimedUntil(LocalDateTime.now().plus(lease));
+        return interestRunRepository.save(run);
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+
+    private record Chunk(long toId, Future<Integer> result) {
+    }
+}
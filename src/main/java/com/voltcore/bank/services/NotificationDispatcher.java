@@ -0,0 +1,27 @@
+package com.voltcore.bank.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Background job that drains the notification outbox in batches.
+ */
+@Component
+public class NotificationDispatcher {
+    private final EmailService emailService;
+    private final int batchSize;
+
+    public NotificationDispatcher(EmailService emailService,
+                                  @Value("${voltcore.notifications.batch-size:100}") int batchSize) {
+        this.emailService = emailService;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${voltcore.notifications.dispatch-interval-ms:5000}")
+    public void dispatch() {
+        while (emailService.dispatchPending(batchSize) == batchSize) {
+            // Keep draining while full batches come back
+        }
+    }
+}
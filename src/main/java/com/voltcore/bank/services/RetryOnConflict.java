@@ -0,0 +1,17 @@
+package com.voltcore.bank.services;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a transactional service method that is re-run from scratch when its transaction fails
+ * with an optimistic locking conflict. See {@link ConflictRetryExecutor}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
@@ -0,0 +1,127 @@
+package com.voltcore.bank.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.voltcore.bank.dtos.TransactionDTO;
+import com.voltcore.bank.entities.Transaction;
+import com.voltcore.bank.mappers.TransactionMapper;
+import com.voltcore.bank.repositories.TransactionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Cache of transactions by day for date-range queries over closed periods.
+ * <p>
+ * A day is closed once it ended at least {@code voltcore.transactions.range-cache.closed-after}
+ * ago; its transactions only change through the rare admin edit, which invalidates the day. A
+ * range query is answered from the cached days it covers, trimmed to the exact bounds, plus one
+ * live query for the part that is still open. Missing days are loaded together in one query. The
+ * cache is bounded by the total number of transactions held and is local to this instance.
+ * Callers get copies of the cached DTOs, so changing a result never changes the cache.
+ */
+@Component
+public class TransactionRangeCache {
+    private final TransactionRepository transactionRepository;
+    private final TransactionMapper transactionMapper;
+    private final Duration closedAfter;
+    private final Cache<LocalDate, List<TransactionDTO>> days;
+
+    public TransactionRangeCache(TransactionRepository transactionRepository,
+                                 TransactionMapper transactionMapper,
+                                 @Value("${voltcore.transactions.range-cache.closed-after:1h}") Duration closedAfter,
+                                 @Value("${voltcore.transactions.range-cache.max-transactions:500000}") long maxTransactions,
+                                 @Value("${voltcore.transactions.range-cache.ttl:24h}") Duration ttl) {
+        this.transactionRepository = transactionRepository;
+        this.transactionMapper = transactionMapper;
+        this.closedAfter = closedAfter;
+        this.days = Caffeine.newBuilder()
+                .maximumWeight(maxTransactions)
+                .weigher((LocalDate day, List<TransactionDTO> transactions) -> transactions.size() + 1)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Returns the transactions dated between {@code startDate} and {@code endDate} inclusive,
+     * ordered by date.
+     */
+    public List<TransactionDTO> findBetween(LocalDateTime startDate, LocalDateTime endDate) {
+        LocalDate firstOpenDay = LocalDateTime.now().minus(closedAfter).toLocalDate();
+        LocalDate startDay = startDate.toLocalDate();
+        LocalDate lastClosedDay = endDate.toLocalDate().isBefore(firstOpenDay) ? endDate.toLocalDate() : firstOpenDay.minusDays(1);
+
+        List<TransactionDTO> result = new ArrayList<>();
+        if (!startDay.isAfter(lastClosedDay)) {
+            Set<LocalDate> closedDays = new TreeSet<>();
+            for (LocalDate day = startDay; !day.isAfter(lastClosedDay); day = day.plusDays(1)) {
+                closedDays.add(day);
+            }
+            Map<LocalDate, List<TransactionDTO>> cached = days.getAll(closedDays, this::loadDays);
+            for (LocalDate day : closedDays) {
+                for (TransactionDTO transaction : cached.get(day)) {
+                    if (!transaction.getTransactionDate().isBefore(startDate) && !transaction.getTransactionDate().isAfter(endDate)) {
+                        result.add(transactionMapper.copy(transaction));
+                    }
+                }
+            }
+        }
+
+        if (endDate.toLocalDate().isAfter(lastClosedDay)) {
+            LocalDateTime liveStart = startDay.isAfter(lastClosedDay) ? startDate : lastClosedDay.plusDays(1).atStartOfDay();
+            for (Transaction transaction : transactionRepository.findBetweenOrdered(liveStart, endDate)) {
+                result.add(transactionMapper.toDTO(transaction));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops the cached day containing {@code transactionDate} after one of its transactions changed.
+     */
+    public void invalidate(LocalDateTime transactionDate) {
+        if (transactionDate == null) {
+            return;
+        }
+        LocalDate day = transactionDate.toLocalDate();
+        days.invalidate(day);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A reader may reload the day before the change commits; drop it again once it has
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    days.invalidate(day);
+                }
+            });
+        }
+    }
+
+    private Map<LocalDate, List<TransactionDTO>> loadDays(Set<? extends LocalDate> missingDays) {
+        LocalDate first = Collections.min(missingDays);
+        LocalDate last = Collections.max(missingDays);
+        Map<LocalDate, List<TransactionDTO>> loaded = new HashMap<>();
+        for (LocalDate day : missingDays) {
+            loaded.put(day, new ArrayList<>());
+        }
+        for (Transaction transaction : transactionRepository.findInPeriod(first.atStartOfDay(), last.plusDays(1).atStartOfDay())) {
+            List<TransactionDTO> dayTransactions = loaded.get(transaction.getTransactionDate().toLocalDate());
+            if (dayTransactions != null) {
+                dayTransactions.add(transactionMapper.toDTO(transaction));
+            }
+        }
+        loaded.replaceAll((day, transactions) -> List.copyOf(transactions));
+        return loaded;
+    }
+}
@@ -0,0 +1,22 @@
+-- Switch primary keys from identity columns to pooled sequences (allocation size 50).
+-- Fresh databases get their sequences from Hibernate; existing ones are migrated here.
+-- Each sequence starts 50 past the current maximum id because the pooled optimizer
+-- treats every value it fetches as the upper bound of the next block of 50 ids.
+DO $$
+DECLARE
+    target record;
+    max_id bigint;
+BEGIN
+    FOR target IN
+        SELECT * FROM (VALUES ('account', 'account_seq'),
+                              ('transaction', 'transaction_seq'),
+                              ('user_table', 'user_seq')) AS t(table_name, sequence_name)
+    LOOP
+        IF to_regclass(target.table_name) IS NOT NULL AND to_regclass(target.sequence_name) IS NULL THEN
+            EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', target.table_name) INTO max_id;
+            EXECUTE format('CREATE SEQUENCE %I START WITH %s INCREMENT BY 50', target.sequence_name, max_id + 50);
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN id DROP IDENTITY IF EXISTS', target.table_name);
+        END IF;
+    END LOOP;
+END
+$$;
@@ -0,0 +1,34 @@
+-- Store account status and type, transaction type and payment method as smallint codes
+-- (see the CodedEnum implementations in com.voltcore.bank.entities; codes are never reused).
+-- Fresh databases get smallint columns from Hibernate; existing varchar columns are converted
+-- here. An unexpected value fails the migration instead of being silently dropped.
+DO $$
+DECLARE
+    target record;
+    unknown text;
+BEGIN
+    FOR target IN
+        SELECT * FROM (VALUES
+            ('account', 'status', 'CASE status WHEN ''ACTIVE'' THEN 1 WHEN ''CLOSED'' THEN 2 END'),
+            ('account', 'account_type', 'CASE account_type WHEN ''SAVINGS'' THEN 1 WHEN ''CHECKING'' THEN 2 END'),
+            ('transaction', 'transaction_type', 'CASE transaction_type WHEN ''DEPOSIT'' THEN 1 WHEN ''WITHDRAWAL'' THEN 2'
+                || ' WHEN ''TRANSFER'' THEN 3 WHEN ''INTEREST'' THEN 4 WHEN ''REVERSAL'' THEN 5 END'),
+            ('transaction', 'payment_method', 'CASE payment_method WHEN ''PAYPAL'' THEN 1 WHEN ''CREDIT_CARD'' THEN 2'
+                || ' WHEN ''BANK_TRANSFER'' THEN 3 END')
+        ) AS t(table_name, column_name, code_expression)
+    LOOP
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = target.table_name
+                     AND column_name = target.column_name AND data_type = 'character varying') THEN
+            EXECUTE format('SELECT %I FROM %I WHERE %I IS NOT NULL AND (%s) IS NULL LIMIT 1',
+                           target.column_name, target.table_name, target.column_name, target.code_expression)
+                INTO unknown;
+            IF unknown IS NOT NULL THEN
+                RAISE EXCEPTION 'Unknown %.% value %', target.table_name, target.column_name, unknown;
+            END IF;
+            EXECUTE format('ALTER TABLE %I ALTER COLUMN %I TYPE smallint USING %s',
+                           target.table_name, target.column_name, target.code_expression);
+        END IF;
+    END LOOP;
+END
+$$;
@@ -0,0 +1,14 @@
+-- Account numbers are now 14-character time-ordered base32 strings (see AccountNumberGenerator);
+-- accounts opened earlier keep their 36-character UUIDs. Narrow the column to varchar(36) and
+-- give it the "C" collation, so the unique index compares bytes instead of locale rules and
+-- orders numbers the same way Java's String.compareTo does. Changing the type rebuilds the
+-- index. Fresh databases get the same column definition from Hibernate.
+DO $$
+BEGIN
+    IF to_regclass('account') IS NOT NULL AND EXISTS (SELECT 1 FROM information_schema.columns
+            WHERE table_name = 'account' AND column_name = 'account_number'
+              AND (character_maximum_length IS DISTINCT FROM 36 OR collation_name IS DISTINCT FROM 'C')) THEN
+        ALTER TABLE account ALTER COLUMN account_number TYPE varchar(36) COLLATE "C";
+    END IF;
+END
+$$;
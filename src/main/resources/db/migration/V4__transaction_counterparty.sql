@@ -0,0 +1,20 @@
+-- Record the destination account of transfers in transaction.counterparty_account_id and index
+-- it like account_id, so an account's incoming transfers are found without scanning descriptions.
+-- Existing transfer rows only name their destination in the description
+-- ("Transfer from <source> to <destination>"), so it is backfilled from there. Fresh databases
+-- get the column and index from Hibernate.
+DO $$
+BEGIN
+    IF to_regclass('transaction') IS NOT NULL AND NOT EXISTS (SELECT 1 FROM information_schema.columns
+            WHERE table_name = 'transaction' AND column_name = 'counterparty_account_id') THEN
+        ALTER TABLE transaction ADD COLUMN counterparty_account_id bigint REFERENCES account (id);
+        UPDATE transaction t
+        SET counterparty_account_id = a.id
+        FROM account a
+        WHERE t.transaction_type = 3
+          AND a.account_number = substring(t.description FROM '^Transfer from \S+ to (\S+)$');
+        CREATE INDEX idx_transaction_counterparty_date_id
+            ON transaction (counterparty_account_id, transaction_date, id);
+    END IF;
+END
+$$;
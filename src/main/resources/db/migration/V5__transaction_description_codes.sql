@@ -0,0 +1,27 @@
+-- Store generated transaction descriptions as a smallint code (see DescriptionCode) rendered from
+-- the account numbers when read, instead of repeating them in every row. A description is
+-- converted only when it is exactly the text its code renders to; anything else stays as free
+-- text. Fresh databases get the column from Hibernate.
+DO $$
+BEGIN
+    IF to_regclass('transaction') IS NOT NULL AND NOT EXISTS (SELECT 1 FROM information_schema.columns
+            WHERE table_name = 'transaction' AND column_name = 'description_code') THEN
+        ALTER TABLE transaction ADD COLUMN description_code smallint;
+        UPDATE transaction t
+        SET description_code = d.code, description = NULL
+        FROM account a,
+             (VALUES (1, 'Deposit to account ', NULL),
+                     (2, 'Withdrawal from account ', NULL),
+                     (3, 'Transfer from ', ' to '),
+                     (4, 'Interest applied to account ', NULL),
+                     (5, 'Reversal of deposit to account ', NULL),
+                     (6, 'Reversal of withdrawal from account ', NULL),
+                     (7, 'Updated deposit to account ', NULL),
+                     (8, 'Updated withdrawal from account ', NULL)) AS d(code, prefix, counterparty_separator)
+        WHERE a.id = t.account_id
+          AND t.description = d.prefix || a.account_number
+              || COALESCE(d.counterparty_separator
+                          || (SELECT c.account_number FROM account c WHERE c.id = t.counterparty_account_id), '');
+    END IF;
+END
+$$;
@@ -0,0 +1,52 @@
+package com.voltcore.bank.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginRateLimiterTest {
+    private final LoginRateLimiter limiter = new LoginRateLimiter(3, 5, Duration.ofHours(1), 1000, new SimpleMeterRegistry());
+
+    @Test
+    void limitsAttemptsPerUsernameAcrossClients() {
+        limiter.acquire("alice", "10.0.0.1");
+        limiter.acquire("Alice", "10.0.0.2");
+        limiter.acquire("ALICE", "10.0.0.3");
+
+        assertThatThrownBy(() -> limiter.acquire("alice", "10.0.0.4"))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("429");
+    }
+
+    @Test
+    void limitsAttemptsPerClientAcrossUsernames() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("user" + i, "10.0.0.1");
+        }
+
+        assertThatThrownBy(() -> limiter.acquire("someone", "10.0.0.1"))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void rejectedClientDoesNotDrainAnotherUsersAttempts() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("user" + i, "10.0.0.1");
+        }
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> limiter.acquire("victim", "10.0.0.1"))
+                    .isInstanceOf(ResponseStatusException.class);
+        }
+
+        assertThatCode(() -> {
+            limiter.acquire("victim", "10.0.0.2");
+            limiter.acquire("victim", "10.0.0.2");
+            limiter.acquire("victim", "10.0.0.2");
+        }).doesNotThrowAnyException();
+    }
+}
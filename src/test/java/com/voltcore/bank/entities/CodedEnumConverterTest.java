@@ -0,0 +1,66 @@
+package com.voltcore.bank.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CodedEnumConverterTest {
+
+    @Test
+    void everyConstantRoundTripsThroughItsCode() {
+        assertRoundTrips(new AccountStatus.CodeConverter(), AccountStatus.values());
+        assertRoundTrips(new AccountType.CodeConverter(), AccountType.values());
+        assertRoundTrips(new DescriptionCode.CodeConverter(), DescriptionCode.values());
+        assertRoundTrips(new PaymentMethod.CodeConverter(), PaymentMethod.values());
+        assertRoundTrips(new TransactionType.CodeConverter(), TransactionType.values());
+    }
+
+    @Test
+    void codesAreUniqueAndPositive() {
+        for (List<? extends CodedEnum> constants : List.of(List.of(AccountStatus.values()), List.of(AccountType.values()),
+                List.of(DescriptionCode.values()), List.of(PaymentMethod.values()), List.of(TransactionType.values()))) {
+            Set<Short> codes = new HashSet<>();
+            for (CodedEnum constant : constants) {
+                assertThat(constant.code()).as("%s", constant).isPositive();
+                assertThat(codes.add(constant.code())).as("duplicate code for %s", constant).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void storesCodesNotOrdinals() {
+        PaymentMethod.CodeConverter converter = new PaymentMethod.CodeConverter();
+        assertThat(converter.convertToDatabaseColumn(PaymentMethod.PAYPAL)).isEqualTo((short) 1);
+        assertThat(converter.convertToEntityAttribute((short) 3)).isEqualTo(PaymentMethod.BANK_TRANSFER);
+    }
+
+    @Test
+    void nullRoundTripsAsNull() {
+        AccountStatus.CodeConverter converter = new AccountStatus.CodeConverter();
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+
+    @Test
+    void unknownCodesAreRejected() {
+        TransactionType.CodeConverter converter = new TransactionType.CodeConverter();
+        for (short code : new short[]{0, -1, 6, Short.MAX_VALUE}) {
+            assertThatThrownBy(() -> converter.convertToEntityAttribute(code))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Unknown TransactionType code " + code);
+        }
+    }
+
+    private static <E extends Enum<E> & CodedEnum> void assertRoundTrips(CodedEnumConverter<E> converter, E[] constants) {
+        for (E constant : constants) {
+            Short code = converter.convertToDatabaseColumn(constant);
+            assertThat(code).isEqualTo(constant.code());
+            assertThat(converter.convertToEntityAttribute(code)).isSameAs(constant);
+        }
+    }
+}
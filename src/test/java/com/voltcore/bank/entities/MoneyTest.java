@@ -0,0 +1,93 @@
+package com.voltcore.bank.entities;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void ofConvertsExactly() {
+        assertThat(Money.of(new BigDecimal("12.3")).minorUnits()).isEqualTo(1230);
+        assertThat(Money.of(new BigDecimal("-0.01")).minorUnits()).isEqualTo(-1);
+        assertThat(Money.of(new BigDecimal("5.000")).toString()).isEqualTo("5.00");
+    }
+
+    @Test
+    void ofRejectsExtraDecimalPlacesAndNull() {
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1.005")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Amount must have at most 2 decimal places");
+        assertThatThrownBy(() -> Money.of(null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Amount is required");
+    }
+
+    @Test
+    void ofWithRoundingRoundsToMinorUnits() {
+        assertThat(Money.of(new BigDecimal("1.005"), RoundingMode.HALF_EVEN).minorUnits()).isEqualTo(100);
+        assertThat(Money.of(new BigDecimal("1.015"), RoundingMode.HALF_EVEN).minorUnits()).isEqualTo(102);
+        assertThat(Money.of(new BigDecimal("-1.005"), RoundingMode.HALF_UP).minorUnits()).isEqualTo(-101);
+    }
+
+    @Test
+    void ofWithRoundingRejectsNull() {
+        assertThatThrownBy(() -> Money.of(null, RoundingMode.HALF_EVEN))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Amount is required");
+    }
+
+    @Test
+    void percentRoundsWithTheGivenMode() {
+        Money amount = Money.of(new BigDecimal("10.05"));
+        // 10.05 * 2.5% = 0.25125
+        assertThat(amount.percent(new BigDecimal("2.5"), RoundingMode.HALF_EVEN).minorUnits()).isEqualTo(25);
+        assertThat(amount.percent(new BigDecimal("2.5"), RoundingMode.UP).minorUnits()).isEqualTo(26);
+        // 0.50 * 1% = 0.005, a tie
+        Money half = Money.of(new BigDecimal("0.50"));
+        assertThat(half.percent(BigDecimal.ONE, RoundingMode.HALF_EVEN).minorUnits()).isZero();
+        assertThat(half.percent(BigDecimal.ONE, RoundingMode.HALF_UP).minorUnits()).isEqualTo(1);
+        assertThat(half.percent(BigDecimal.ONE, RoundingMode.HALF_DOWN).minorUnits()).isZero();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = RoundingMode.class, names = "UNNECESSARY", mode = EnumSource.Mode.EXCLUDE)
+    void percentMatchesBigDecimalArithmetic(RoundingMode rounding) {
+        long[] amounts = {0, 1, -1, 5, -5, 15, -15, 125, -125, 99_999, -99_999, 123_456_789, Long.MAX_VALUE / 3, Long.MIN_VALUE / 3};
+        String[] rates = {"0", "1", "2.5", "0.125", "3.333", "-1.5", "100", "0.0001", "12.345678"};
+        for (long minorUnits : amounts) {
+            Money amount = Money.ofMinorUnits(minorUnits);
+            for (String rate : rates) {
+                BigDecimal ratePercent = new BigDecimal(rate);
+                BigDecimal expected = amount.toBigDecimal().multiply(ratePercent).movePointLeft(2).setScale(Money.SCALE, rounding);
+                assertThat(amount.percent(ratePercent, rounding).toBigDecimal())
+                        .as("%s%% of %s, %s", rate, amount, rounding)
+                        .isEqualByComparingTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void percentFallsBackToBigDecimalWhenTheProductOverflows() {
+        Money amount = Money.ofMinorUnits(Long.MAX_VALUE / 2);
+        assertThat(amount.percent(new BigDecimal("50"), RoundingMode.DOWN).minorUnits()).isEqualTo(Long.MAX_VALUE / 4);
+    }
+
+    @Test
+    void percentRejectsUnnecessaryRoundingOfAnInexactResult() {
+        assertThatThrownBy(() -> Money.ofMinorUnits(1).percent(new BigDecimal("50"), RoundingMode.UNNECESSARY))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void arithmeticFailsInsteadOfOverflowing() {
+        assertThatThrownBy(() -> Money.ofMinorUnits(Long.MAX_VALUE).plus(Money.ofMinorUnits(1)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
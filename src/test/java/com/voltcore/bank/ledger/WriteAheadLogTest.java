@@ -0,0 +1,174 @@
+package com.voltcore.bank.ledger;
+
+import com.voltcore.bank.entities.Money;
+import com.voltcore.bank.entities.PaymentMethod;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WriteAheadLogTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 2, 3, 4, 5, 678_901_234);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysAppendedCommandsAcrossSegmentsInOrder() throws IOException {
+        List<LedgerCommand> first = List.of(
+                accepted(1, LedgerCommand.open(7, "0A8SRABSG0MGSP")),
+                accepted(2, LedgerCommand.deposit("0A8SRABSG0MGSP", Money.ofMinorUnits(12_345), PaymentMethod.PAYPAL)));
+        List<LedgerCommand> second = List.of(
+                accepted(3, LedgerCommand.transfer("0A8SRABSG0MGSP", "09d9f9ee-f228-4818-b63b-a718b0fd85cb",
+                        Money.ofMinorUnits(-1), PaymentMethod.BANK_TRANSFER)),
+                accepted(4, LedgerCommand.close("0A8SRABSG0MGSP")),
+                accepted(5, LedgerCommand.remove("0A8SRABSG0MGSP")));
+        try (WriteAheadLog wal = new WriteAheadLog(directory)) {
+            wal.startSegment(1);
+            wal.append(first);
+            wal.startSegment(3);
+            wal.append(second);
+        }
+
+        List<LedgerCommand> expected = new ArrayList<>(first);
+        expected.addAll(second);
+        assertThat(replay()).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void truncatesATornTailAndKeepsAppendingAfterIt() throws IOException {
+        LedgerCommand deposit = accepted(1, LedgerCommand.deposit("0A8SRABSG0MGSP", Money.ofMinorUnits(100), PaymentMethod.PAYPAL));
+        LedgerCommand withdrawal = accepted(2, LedgerCommand.withdrawal("0A8SRABSG0MGSP", Money.ofMinorUnits(40), PaymentMethod.PAYPAL));
+        long intactSize;
+        try (WriteAheadLog wal = new WriteAheadLog(directory)) {
+            wal.startSegment(1);
+            wal.append(List.of(deposit));
+            intactSize = Files.size(onlySegment());
+            wal.append(List.of(withdrawal));
+        }
+        Path segment = onlySegment();
+        // A crash mid-write leaves only part of the second record
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        assertThat(replay()).containsExactly(deposit);
+        assertThat(Files.size(segment)).isEqualTo(intactSize);
+
+        LedgerCommand retried = accepted(2, LedgerCommand.withdrawal("0A8SRABSG0MGSP", Money.ofMinorUnits(50), PaymentMethod.PAYPAL));
+        try (WriteAheadLog wal = new WriteAheadLog(directory)) {
+            wal.startSegment(1);
+            wal.append(List.of(retried));
+        }
+        assertThat(replay()).containsExactly(deposit, retried);
+    }
+
+    @Test
+    void stopsAtACorruptRecord() throws IOException {
+        LedgerCommand deposit = accepted(1, LedgerCommand.deposit("0A8SRABSG0MGSP", Money.ofMinorUnits(100), PaymentMethod.PAYPAL));
+        LedgerCommand withdrawal = accepted(2, LedgerCommand.withdrawal("0A8SRABSG0MGSP", Money.ofMinorUnits(40), PaymentMethod.PAYPAL));
+        try (WriteAheadLog wal = new WriteAheadLog(directory)) {
+            wal.startSegment(1);
+            wal.append(List.of(deposit, withdrawal));
+        }
+        Path segment = onlySegment();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long last = file.length() - 1;
+            file.seek(last);
+            int value = file.read();
+            file.seek(last);
+            file.write(value ^ 0xFF);
+        }
+
+        assertThat(replay()).containsExactly(deposit);
+    }
+
+    @Test
+    void failsOnACorruptRecordInAnEarlierSegment() throws IOException {
+        try (WriteAheadLog wal = new WriteAheadLog(directory)) {
+            wal.startSegment(1);
+            wal.append(List.of(accepted(1, LedgerCommand.open(7, "0A8SRABSG0MGSP")),
+                    accepted(2, LedgerCommand.deposit("0A8SRABSG0MGSP", Money.ofMinorUnits(100), PaymentMethod.PAYPAL))));
+            wal.startSegment(3);
+            wal.append(List.of(accepted(3, LedgerCommand.withdrawal("0A8SRABSG0MGSP", Money.ofMinorUnits(40), PaymentMethod.PAYPAL))));
+        }
+        Path first = segments().stream().sorted().findFirst().orElseThrow();
+        long size = Files.size(first);
+        try (RandomAccessFile file = new RandomAccessFile(first.toFile(), "rw")) {
+            file.seek(size - 1);
+            int value = file.read();
+            file.seek(size - 1);
+            file.write(value ^ 0xFF);
+        }
+
+        assertThatThrownBy(this::replay)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("not the last segment");
+        assertThat(Files.size(first)).isEqualTo(size);
+    }
+
+    @Test
+    void failsOnAGapInTheSequence() throws IOException {
+        try (WriteAheadLog wal = new WriteAheadLog(directory)) {
+            wal.startSegment(1);
+            wal.append(List.of(accepted(1, LedgerCommand.open(7, "0A8SRABSG0MGSP"))));
+            wal.startSegment(2);
+            wal.append(List.of(accepted(3, LedgerCommand.close("0A8SRABSG0MGSP"))));
+        }
+
+        assertThatThrownBy(this::replay)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Expected sequence 2 but found 3");
+    }
+
+    @Test
+    void deletesOnlySegmentsFullyCoveredBySequence() throws IOException {
+        try (WriteAheadLog wal = new WriteAheadLog(directory)) {
+            wal.startSegment(1);
+            wal.append(List.of(accepted(1, LedgerCommand.open(7, "0A8SRABSG0MGSP"))));
+            wal.startSegment(2);
+            wal.append(List.of(accepted(2, LedgerCommand.close("0A8SRABSG0MGSP"))));
+            wal.startSegment(3);
+
+            wal.deleteSegmentsThrough(1);
+            assertThat(replay()).extracting(LedgerCommand::sequence).containsExactly(2L);
+            wal.deleteSegmentsThrough(Long.MAX_VALUE);
+        }
+        assertThat(replay()).isEmpty();
+        assertThat(segments()).hasSize(1);
+    }
+
+    private List<LedgerCommand> replay() throws IOException {
+        List<LedgerCommand> replayed = new ArrayList<>();
+        try (WriteAheadLog wal = new WriteAheadLog(directory)) {
+            wal.replay(replayed::add);
+        }
+        return replayed;
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> segments = segments();
+        assertThat(segments).hasSize(1);
+        return segments.get(0);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+    private static LedgerCommand accepted(long sequence, LedgerCommand command) {
+        return command.accepted(sequence, NOW);
+    }
+}
@@ -0,0 +1,45 @@
+package com.voltcore.bank.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HistoryCursorTest {
+
+    @Test
+    void roundTripsThroughItsToken() {
+        for (LocalDateTime transactionDate : new LocalDateTime[]{
+                LocalDateTime.of(2026, 3, 4, 5, 6, 7, 123_456_789),
+                LocalDateTime.of(2026, 3, 4, 5, 6),
+                LocalDateTime.of(1999, 12, 31, 23, 59, 59, 1_000)}) {
+            AccountService.HistoryCursor cursor = new AccountService.HistoryCursor(transactionDate, 9_000_001L);
+            assertThat(AccountService.HistoryCursor.decode(cursor.encode())).isEqualTo(cursor);
+        }
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = new AccountService.HistoryCursor(LocalDateTime.of(2026, 3, 4, 5, 6, 7, 999_999_999), Long.MAX_VALUE).encode();
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        for (String token : new String[]{"", "not base64!", encode("2026-03-04T05:06:07"), encode("yesterday|5"),
+                encode("2026-03-04T05:06:07|five"), encode("|5")}) {
+            assertThatThrownBy(() -> AccountService.HistoryCursor.decode(token))
+                    .as("token %s", token)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("Invalid cursor");
+        }
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,229 @@
+package com.voltcore.bank.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voltcore.bank.dtos.TransactionDTO;
+import com.voltcore.bank.entities.IdempotencyRecord;
+import com.voltcore.bank.ledger.LedgerEngine;
+import com.voltcore.bank.repositories.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+    private final Map<String, IdempotencyRecord> records = new ConcurrentHashMap<>();
+    private final IdempotencyRecordRepository repository = inMemoryRepository();
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void signIn() {
+        signInAs("alice");
+    }
+
+    @AfterEach
+    void signOut() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void sameKeyReplaysTheStoredResponse() {
+        IdempotencyService service = service(false);
+
+        TransactionDTO first = service.execute("key-1", deposit("10"), work("10"));
+        TransactionDTO again = service.execute("key-1", deposit("10.00"), work("10"));
+
+        assertThat(runs).hasValue(1);
+        assertThat(again).isEqualTo(first);
+        assertThat(records.get("alice:key-1").getResponseBody()).isNotNull();
+        // Another instance, without the response cached, replays it from the record
+        assertThat(service(false).execute("key-1", deposit("10"), work("10"))).isEqualTo(first);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void differentRequestWithTheSameKeyIsAConflict() {
+        IdempotencyService service = service(false);
+        service.execute("key-1", deposit("10"), work("10"));
+
+        assertConflict(() -> service.execute("key-1", deposit("11"), work("11")), "different request");
+        assertConflict(() -> service(false).execute("key-1", deposit("11"), work("11")), "different request");
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void keyClaimedByARunningRequestIsAConflict() {
+        IdempotencyService service = service(false);
+        AtomicInteger nested = new AtomicInteger();
+
+        service.execute("key-1", deposit("10"), () -> {
+            assertConflict(() -> service.execute("key-1", deposit("10"), work("10")), "still being processed");
+            nested.incrementAndGet();
+            return work("10").get();
+        });
+
+        assertThat(nested).hasValue(1);
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void failedAttemptFreesTheKey() {
+        IdempotencyService service = service(false);
+
+        assertThatThrownBy(() -> service.execute("key-1", deposit("10"), () -> {
+            throw new IllegalStateException("database went away");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(records).isEmpty();
+
+        service.execute("key-1", deposit("10"), work("10"));
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void ledgerModeKeepsTheClaimWhenTheOutcomeIsUnknown() {
+        IdempotencyService service = service(true);
+
+        assertThatThrownBy(() -> service.execute("key-1", deposit("10"), () -> {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Timed out waiting for the ledger");
+        })).isInstanceOf(ResponseStatusException.class);
+
+        assertConflict(() -> service.execute("key-1", deposit("10"), work("10")), "still being processed");
+        assertThat(runs).hasValue(0);
+    }
+
+    @Test
+    void ledgerModeFreesTheKeyWhenTheRequestWasRejected() {
+        IdempotencyService service = service(true);
+
+        assertThatThrownBy(() -> service.execute("key-1", deposit("10"), () -> {
+            throw BankingException.insufficientFunds("Insufficient funds");
+        })).isInstanceOf(BankingException.class);
+
+        service.execute("key-1", deposit("10"), work("10"));
+        assertThat(runs).hasValue(1);
+    }
+
+    @Test
+    void keysAreScopedToTheUser() {
+        IdempotencyService service = service(false);
+        service.execute("key-1", deposit("10"), work("10"));
+
+        signInAs("bob");
+        service.execute("key-1", deposit("10"), work("10"));
+        service.execute("key-1", deposit("10"), work("10"));
+
+        assertThat(runs).hasValue(2);
+        assertThat(records).containsOnlyKeys("alice:key-1", "bob:key-1");
+    }
+
+    @Test
+    void rejectsKeysLongerThanTheColumn() {
+        IdempotencyService service = service(false);
+        String key = "k".repeat(IdempotencyService.MAX_SCOPED_KEY_LENGTH);
+
+        assertThatThrownBy(() -> service.execute(key, deposit("10"), work("10")))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        assertThat(runs).hasValue(0);
+    }
+
+    @Test
+    void withoutAKeyTheWorkAlwaysRuns() {
+        IdempotencyService service = service(false);
+        service.execute(null, deposit("10"), work("10"));
+        service.execute(" ", deposit("10"), work("10"));
+
+        assertThat(runs).hasValue(2);
+        assertThat(records).isEmpty();
+    }
+
+    private IdempotencyService service(boolean ledgerEnabled) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<LedgerEngine> ledgerEngine = mock(ObjectProvider.class);
+        when(ledgerEngine.getIfAvailable()).thenReturn(ledgerEnabled ? mock(LedgerEngine.class) : null);
+        return new IdempotencyService(repository, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                new ConflictRetryExecutor(new SimpleMeterRegistry(), 1, Duration.ofMillis(1), Duration.ofMillis(1)),
+                new ObjectMapper().findAndRegisterModules(), ledgerEngine, Duration.ofHours(1), 100);
+    }
+
+    private Supplier<TransactionDTO> work(String amount) {
+        return () -> {
+            TransactionDTO dto = new TransactionDTO();
+            dto.setAccountId(1L);
+            dto.setTransactionType("DEPOSIT");
+            dto.setAmount(new BigDecimal(amount));
+            dto.setTransactionDate(LocalDateTime.of(2026, 1, 2, 3, 4, 5));
+            dto.setPaymentMethod("PAYPAL");
+            dto.setDescription("Deposit number " + runs.incrementAndGet());
+            return dto;
+        };
+    }
+
+    private static String deposit(String amount) {
+        return "deposit|0A8SRABSG0MGSP|PAYPAL|" + IdempotencyService.canonical(new BigDecimal(amount));
+    }
+
+    private static void assertConflict(Runnable call, String message) {
+        assertThatThrownBy(call::run)
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT))
+                .hasMessageContaining(message);
+    }
+
+    private static void signInAs(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_USER"));
+    }
+
+    /**
+     * A repository over {@link #records} that enforces the unique key like the database does.
+     */
+    private IdempotencyRecordRepository inMemoryRepository() {
+        IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+        AtomicLong ids = new AtomicLong();
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> {
+            IdempotencyRecord record = invocation.getArgument(0);
+            if (records.putIfAbsent(record.getIdempotencyKey(), record) != null) {
+                throw new DataIntegrityViolationException("duplicate key " + record.getIdempotencyKey());
+            }
+            record.setId(ids.incrementAndGet());
+            return record;
+        });
+        when(repository.findByIdempotencyKey(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(records.get(invocation.<String>getArgument(0))));
+        when(repository.saveResponse(anyLong(), anyString())).thenAnswer(invocation -> {
+            records.values().stream()
+                    .filter(record -> record.getId().equals(invocation.getArgument(0)))
+                    .forEach(record -> record.setResponseBody(invocation.getArgument(1)));
+            return 1;
+        });
+        doAnswer(invocation -> records.values().removeIf(record -> record.getId().equals(invocation.getArgument(0))))
+                .when(repository).deleteById(anyLong());
+        return repository;
+    }
+}
@@ -0,0 +1,128 @@
+package com.voltcore.bank.services;
+
+import com.voltcore.bank.entities.InterestRun;
+import com.voltcore.bank.ledger.LedgerEngine;
+import com.voltcore.bank.mappers.InterestRunMapper;
+import com.voltcore.bank.repositories.AccountRepository;
+import com.voltcore.bank.repositories.InterestRunRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InterestServiceTest {
+    private static final LocalDate PERIOD = LocalDate.now().withDayOfMonth(1);
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+    private final InterestRunRepository interestRunRepository = mock(InterestRunRepository.class);
+    private final AtomicReference<InterestRun> saved = new AtomicReference<>();
+    private InterestService service;
+
+    @BeforeEach
+    void setUp() {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<LedgerEngine> ledgerEngine = mock(ObjectProvider.class);
+        service = new InterestService(accountRepository, interestRunRepository, mock(InterestRunMapper.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), ledgerEngine, 2, 1, Duration.ofMinutes(5));
+        when(interestRunRepository.save(any())).thenAnswer(invocation -> {
+            InterestRun run = invocation.getArgument(0);
+            if (run.getId() == null) {
+                run.setId(99L);
+            }
+            saved.set(run);
+            return run;
+        });
+        when(interestRunRepository.findById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(saved.get()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void resumesAnExpiredRunFromItsCheckpoint() {
+        InterestRun run = running(LocalDateTime.now().minusMinutes(1));
+        when(interestRunRepository.findFirstByStatusOrderByIdAsc("RUNNING")).thenReturn(Optional.of(run));
+        when(accountRepository.findInterestBearingIdsAfter(500L, 2)).thenReturn(List.of(600L, 700L));
+        when(accountRepository.findInterestBearingIdsAfter(700L, 2)).thenReturn(List.of());
+        when(accountRepository.accrueInterest(eq(PERIOD), eq(500L), eq(700L), any())).thenReturn(2);
+        when(accountRepository.countByLastInterestDate(PERIOD)).thenReturn(42L);
+
+        service.startRun();
+
+        // Claim, checkpoint past account 700, completion
+        verify(interestRunRepository, timeout(5_000).times(3)).save(run);
+        verify(accountRepository, never()).findInterestBearingIdsAfter(0L, 2);
+        verify(accountRepository).accrueInterest(eq(PERIOD), eq(500L), eq(700L), any());
+        assertThat(run.getStatus()).isEqualTo("COMPLETED");
+        assertThat(run.getLastAccountId()).isEqualTo(700L);
+        assertThat(run.getAccountsCredited()).isEqualTo(42L);
+        assertThat(run.getClaimedUntil()).isNull();
+    }
+
+    @Test
+    void leavesARunWithALiveLeaseAlone() {
+        InterestRun run = running(LocalDateTime.now().plusMinutes(1));
+        when(interestRunRepository.findFirstByStatusOrderByIdAsc("RUNNING")).thenReturn(Optional.of(run));
+
+        assertThatThrownBy(() -> service.startRun())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Interest run 7 is already in progress");
+        verify(interestRunRepository, never()).save(any());
+        verify(accountRepository, never()).findInterestBearingIdsAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    void doesNotStartASecondRunForACompletedPeriod() {
+        when(interestRunRepository.existsByPeriodAndStatus(PERIOD, "COMPLETED")).thenReturn(true);
+
+        assertThatThrownBy(() -> service.startRun())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageEndingWith("has already been credited");
+        verify(interestRunRepository, never()).save(any());
+    }
+
+    @Test
+    void startsANewRunForThePeriodFromTheFirstAccount() {
+        service.startRun();
+
+        // Claim, completion
+        verify(interestRunRepository, timeout(5_000).times(2)).save(any());
+        verify(accountRepository).findInterestBearingIdsAfter(0L, 2);
+        InterestRun run = saved.get();
+        assertThat(run.getPeriod()).isEqualTo(PERIOD);
+        assertThat(run.getStatus()).isEqualTo("COMPLETED");
+    }
+
+    private static InterestRun running(LocalDateTime claimedUntil) {
+        InterestRun run = new InterestRun();
+        run.setId(7L);
+        run.setPeriod(PERIOD);
+        run.setStartedAt(LocalDateTime.now().minusHours(1));
+        run.setLastAccountId(500L);
+        run.setClaimedUntil(claimedUntil);
+        return run;
+    }
+}
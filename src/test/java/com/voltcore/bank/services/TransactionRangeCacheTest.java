@@ -0,0 +1,116 @@
+package com.voltcore.bank.services;
+
+import com.voltcore.bank.dtos.TransactionDTO;
+import com.voltcore.bank.entities.Money;
+import com.voltcore.bank.entities.Transaction;
+import com.voltcore.bank.mappers.TransactionMapper;
+import com.voltcore.bank.repositories.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionRangeCacheTest {
+    private static final LocalDate DAY = LocalDate.now().minusDays(10);
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final TransactionMapper transactionMapper = mock(TransactionMapper.class);
+    private final TransactionRangeCache cache = new TransactionRangeCache(transactionRepository, transactionMapper,
+            Duration.ofHours(1), 1000, Duration.ofHours(24));
+
+    private final Transaction morning = transaction(1, DAY.atTime(9, 0));
+    private final Transaction evening = transaction(2, DAY.atTime(21, 0));
+    private final Transaction nextDay = transaction(3, DAY.plusDays(1).atTime(12, 0));
+
+    @BeforeEach
+    void setUp() {
+        when(transactionRepository.findInPeriod(any(), any())).thenReturn(List.of(morning, evening, nextDay));
+        when(transactionMapper.toDTO(any())).thenAnswer(invocation -> toDTO(invocation.getArgument(0)));
+        when(transactionMapper.copy(any())).thenAnswer(invocation -> {
+            TransactionDTO original = invocation.getArgument(0);
+            TransactionDTO copy = new TransactionDTO();
+            copy.setId(original.getId());
+            copy.setAmount(original.getAmount());
+            copy.setTransactionDate(original.getTransactionDate());
+            return copy;
+        });
+    }
+
+    @Test
+    void closedDaysAreLoadedOnceAndTrimmedToTheRange() {
+        List<TransactionDTO> days = cache.findBetween(DAY.atStartOfDay(), DAY.plusDays(1).atTime(23, 59));
+        List<TransactionDTO> afternoon = cache.findBetween(DAY.atTime(12, 0), DAY.plusDays(1).atTime(11, 0));
+
+        assertThat(days).extracting(TransactionDTO::getId).containsExactly(1L, 2L, 3L);
+        assertThat(afternoon).extracting(TransactionDTO::getId).containsExactly(2L);
+        verify(transactionRepository, times(1)).findInPeriod(DAY.atStartOfDay(), DAY.plusDays(2).atStartOfDay());
+        verify(transactionRepository, never()).findBetweenOrdered(any(), any());
+    }
+
+    @Test
+    void openDaysAreQueriedLive() {
+        LocalDateTime end = LocalDateTime.now().plusMinutes(1);
+        LocalDate firstOpenDay = LocalDateTime.now().minusHours(1).toLocalDate();
+        Transaction recent = transaction(4, LocalDateTime.now());
+        when(transactionRepository.findBetweenOrdered(any(), any())).thenReturn(List.of(recent));
+
+        List<TransactionDTO> result = cache.findBetween(DAY.atStartOfDay(), end);
+
+        assertThat(result).extracting(TransactionDTO::getId).containsExactly(1L, 2L, 3L, 4L);
+        verify(transactionRepository).findBetweenOrdered(firstOpenDay.atStartOfDay(), end);
+    }
+
+    @Test
+    void callersGetCopiesOfCachedTransactions() {
+        LocalDateTime start = DAY.atStartOfDay();
+        LocalDateTime end = DAY.atTime(23, 59);
+        TransactionDTO first = cache.findBetween(start, end).get(0);
+        first.setAmount(Money.ofMinorUnits(999_999).toBigDecimal());
+
+        TransactionDTO again = cache.findBetween(start, end).get(0);
+
+        assertThat(again).isNotSameAs(first);
+        assertThat(again.getAmount()).isEqualByComparingTo("1.00");
+    }
+
+    @Test
+    void invalidatedDaysAreReloaded() {
+        LocalDateTime start = DAY.atStartOfDay();
+        LocalDateTime end = DAY.atTime(23, 59);
+        cache.findBetween(start, end);
+
+        cache.invalidate(evening.getTransactionDate());
+        cache.findBetween(start, end);
+        cache.invalidate(null);
+        cache.findBetween(start, end);
+
+        verify(transactionRepository, times(2)).findInPeriod(start, DAY.plusDays(1).atStartOfDay());
+    }
+
+    private static Transaction transaction(long id, LocalDateTime transactionDate) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setAmount(Money.ofMinorUnits(100));
+        transaction.setTransactionDate(transactionDate);
+        return transaction;
+    }
+
+    private static TransactionDTO toDTO(Transaction transaction) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(transaction.getId());
+        dto.setAmount(transaction.getAmount().toBigDecimal());
+        dto.setTransactionDate(transaction.getTransactionDate());
+        return dto;
+    }
+}